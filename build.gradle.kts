@@ -3,6 +3,7 @@ plugins {
     jacoco
     id("org.springframework.boot") version "3.4.3"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "br.com.device"
@@ -14,6 +15,10 @@ val mapStructVersion = "1.6.3"
 val lombokVersion = "1.18.36"
 val mockitoVersion = "5.16.0"
 val embeddedMongoVersion = "4.18.0"
+val caffeineVersion = "3.2.0"
+val resilience4jVersion = "2.2.0"
+val jmhCoreVersion = "1.37"
+val hdrHistogramVersion = "2.2.2"
 
 val jacocoExclusions = arrayOf(
     "br/com/device/DeviceServiceApplication*",
@@ -34,23 +39,42 @@ repositories {
     mavenCentral()
 }
 
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.testRuntimeOnly.get())
+configurations[loadTest.compileOnlyConfigurationName].extendsFrom(configurations.testCompileOnly.get())
+configurations[loadTest.annotationProcessorConfigurationName].extendsFrom(configurations.testAnnotationProcessor.get())
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-undertow")
     implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+    implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-aop")
+    implementation("org.springframework.boot:spring-boot-starter-cache")
     implementation("org.springframework.boot:spring-boot-starter-oauth2-client")
     implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
     implementation("org.springframework.boot:spring-boot-starter-web") {
         exclude("org.springframework.boot", "spring-boot-starter-tomcat")
     }
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.cloud:spring-cloud-starter-circuitbreaker-resilience4j")
+    implementation("org.springframework.cloud:spring-cloud-starter-circuitbreaker-reactor-resilience4j")
+    implementation("io.github.resilience4j:resilience4j-bulkhead:$resilience4jVersion")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:$springDocOpenApiVersion")
     implementation("org.mapstruct:mapstruct:$mapStructVersion")
+    implementation("com.github.ben-manes.caffeine:caffeine:$caffeineVersion")
     implementation("io.opentelemetry:opentelemetry-exporter-otlp")
+    implementation("io.opentelemetry:opentelemetry-sdk-metrics")
     implementation("io.micrometer:micrometer-tracing-bridge-otel")
 
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+
     compileOnly("org.projectlombok:lombok:$lombokVersion")
 
     annotationProcessor("org.projectlombok:lombok:$lombokVersion")
@@ -59,12 +83,15 @@ dependencies {
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
     testImplementation("org.mockito:mockito-core:$mockitoVersion")
+    testImplementation("io.opentelemetry:opentelemetry-sdk-testing")
     testImplementation("de.flapdoodle.embed:de.flapdoodle.embed.mongo.spring3x:$embeddedMongoVersion")
 
     testCompileOnly("org.projectlombok:lombok:$lombokVersion")
 
     testAnnotationProcessor("org.projectlombok:lombok:$lombokVersion")
     testAnnotationProcessor("org.mapstruct:mapstruct-processor:$mapStructVersion")
+
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:$hdrHistogramVersion")
 }
 
 dependencyManagement {
@@ -73,10 +100,32 @@ dependencyManagement {
     }
 }
 
+jmh {
+    jmhVersion = jmhCoreVersion
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    benchmarkMode = listOf("thrpt")
+    timeUnit = "s"
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.register<Test>("loadTest") {
+    description = "Runs the load tests against the service backed by embedded MongoDB."
+    group = "verification"
+    testClassesDirs = loadTest.output.classesDirs
+    classpath = loadTest.runtimeClasspath
+    maxHeapSize = "4g"
+    systemProperties(project.properties.filterKeys { it.startsWith("loadtest.") })
+    testLogging.showStandardStreams = true
+    outputs.upToDateWhen { false }
+}
+
 tasks.withType<JacocoCoverageVerification> {
     dependsOn(tasks.jacocoTestReport)
 
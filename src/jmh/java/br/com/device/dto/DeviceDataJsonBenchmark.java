@@ -0,0 +1,47 @@
+package br.com.device.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
+import static java.util.UUID.randomUUID;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+@State(Benchmark)
+public class DeviceDataJsonBenchmark {
+
+    private ObjectMapper mapper;
+    private DeviceData device;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(WRITE_DATES_AS_TIMESTAMPS)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        this.device = DeviceData.builder()
+                .id(randomUUID())
+                .name("iPhone")
+                .brand("Apple")
+                .state("available")
+                .creationTime(Instant.now())
+                .build();
+        this.json = this.mapper.writeValueAsBytes(this.device);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return this.mapper.writeValueAsBytes(this.device);
+    }
+
+    @Benchmark
+    public DeviceData deserialize() throws IOException {
+        return this.mapper.readValue(this.json, DeviceData.class);
+    }
+}
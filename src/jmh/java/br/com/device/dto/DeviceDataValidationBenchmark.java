@@ -0,0 +1,50 @@
+package br.com.device.dto;
+
+import br.com.device.dto.DeviceData.BasicInfo;
+import br.com.device.dto.DeviceData.StateInfo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+
+import static jakarta.validation.Validation.buildDefaultValidatorFactory;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+@State(Benchmark)
+public class DeviceDataValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private DeviceData valid;
+    private DeviceData invalid;
+
+    @Setup
+    public void setUp() {
+        this.factory = buildDefaultValidatorFactory();
+        this.validator = this.factory.getValidator();
+        this.valid = DeviceData.builder().name("iPhone").brand("Apple").state("available").build();
+        this.invalid = DeviceData.builder().name("iPhone").state("broken").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DeviceData>> validateBasicInfo() {
+        return this.validator.validate(this.valid, BasicInfo.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DeviceData>> validateStateInfo() {
+        return this.validator.validate(this.valid, StateInfo.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DeviceData>> validateInvalid() {
+        return this.validator.validate(this.invalid, BasicInfo.class);
+    }
+}
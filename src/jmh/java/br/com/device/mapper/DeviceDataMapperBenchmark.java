@@ -0,0 +1,57 @@
+package br.com.device.mapper;
+
+import br.com.device.dto.DeviceData;
+import br.com.device.model.Device;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.Instant;
+
+import static br.com.device.model.State.AVAILABLE;
+import static java.util.UUID.randomUUID;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+@State(Benchmark)
+public class DeviceDataMapperBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private DeviceDataMapper mapper;
+    private Device entity;
+    private DeviceData data;
+    private DeviceData patch;
+
+    @Setup
+    public void setUp() {
+        this.context = new AnnotationConfigApplicationContext(StateMapperImpl.class, DeviceDataMapperImpl.class);
+        this.mapper = this.context.getBean(DeviceDataMapper.class);
+        this.entity = Device.builder()
+                .id(randomUUID())
+                .name("iPhone")
+                .brand("Apple")
+                .state(AVAILABLE)
+                .creationTime(Instant.now())
+                .build();
+        this.data = this.mapper.toDTO(this.entity);
+        this.patch = DeviceData.builder().state("in-use").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public Device toEntity() {
+        return this.mapper.toEntity(this.data);
+    }
+
+    @Benchmark
+    public DeviceData toDTO() {
+        return this.mapper.toDTO(this.entity);
+    }
+
+    @Benchmark
+    public DeviceData merge() {
+        return this.mapper.toDTO(this.patch, this.data, this.data.version() + 1);
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.device.mapper;
+
+import org.openjdk.jmh.annotations.*;
+
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+@State(Benchmark)
+public class StateMapperBenchmark {
+
+    @Param({"available", "in-use", "inactive", "unknown"})
+    private String displayName;
+
+    private StateMapper mapper;
+
+    @Setup
+    public void setUp() {
+        this.mapper = new StateMapperImpl();
+    }
+
+    @Benchmark
+    public br.com.device.model.State fromString() {
+        return this.mapper.fromString(this.displayName);
+    }
+}
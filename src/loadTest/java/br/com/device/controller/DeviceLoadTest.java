@@ -0,0 +1,197 @@
+package br.com.device.controller;
+
+import br.com.device.model.Device;
+import br.com.device.model.State;
+import br.com.device.repository.DeviceRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.System.nanoTime;
+import static java.net.http.HttpClient.Version.HTTP_1_1;
+import static java.net.http.HttpRequest.BodyPublishers.ofString;
+import static java.net.http.HttpResponse.BodyHandlers.discarding;
+import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Drives a mixed workload through the device endpoints over HTTP and reports latency percentiles and throughput.
+ * The workload is configured by the {@code loadtest.devices}, {@code loadtest.concurrency}, {@code loadtest.duration}
+ * (seconds) and {@code loadtest.mix} (read, list, update and delete weights) system properties.
+ */
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+class DeviceLoadTest {
+
+    private static final int DEVICES = getInteger("loadtest.devices", 100_000);
+    private static final int CONCURRENCY = getInteger("loadtest.concurrency", 64);
+    private static final Duration DURATION = Duration.ofSeconds(getInteger("loadtest.duration", 60));
+    private static final String MIX = System.getProperty("loadtest.mix", "70,20,8,2");
+    private static final int SEED_CHUNK_SIZE = 10_000;
+    private static final String[] BRANDS = {"Apple", "Samsung", "Motorola", "Xiaomi", "Asus", "Google", "Sony", "Nokia"};
+    private static final String[] STATES = {"available", "in-use", "inactive"};
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Test
+    void shouldSustainMixedWorkload() throws Exception {
+        // Given
+        when(this.jwtDecoder.decode(any())).thenReturn(Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("load-test")
+                .build());
+        final var ids = this.seed();
+        final var weights = MIX.split(",");
+        final var workload = new Workload(
+                Integer.parseInt(weights[0].trim()),
+                Integer.parseInt(weights[1].trim()),
+                Integer.parseInt(weights[2].trim()),
+                Integer.parseInt(weights[3].trim()));
+        final var results = new EnumMap<Operation, Result>(Operation.class);
+        for (final var operation : Operation.values()) results.put(operation, new Result());
+
+        // When
+        final var start = nanoTime();
+        final var deadline = start + DURATION.toNanos();
+        try (final var executor = newVirtualThreadPerTaskExecutor();
+             final var client = HttpClient.newBuilder().version(HTTP_1_1).executor(executor).build()) {
+            final var workers = new ArrayList<Future<?>>(CONCURRENCY);
+            for (var worker = 0; worker < CONCURRENCY; worker++) {
+                workers.add(executor.submit(() -> {
+                    while (nanoTime() < deadline) {
+                        final var operation = workload.next();
+                        final var request = this.request(operation, ids.get(current().nextInt(ids.size())));
+                        final var requestStart = nanoTime();
+                        final var response = client.send(request, discarding());
+                        results.get(operation).record(nanoTime() - requestStart, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (final var worker : workers) worker.get();
+        }
+        final var elapsed = Duration.ofNanos(nanoTime() - start);
+
+        // Then
+        this.report(results, elapsed);
+        assertEquals(0, results.values().stream().mapToLong(result -> result.serverErrors.sum()).sum());
+    }
+
+    private List<UUID> seed() {
+        final var ids = new ArrayList<UUID>(DEVICES);
+        final var random = current();
+        for (var start = 0; start < DEVICES; start += SEED_CHUNK_SIZE) {
+            final var chunk = new ArrayList<Device>(SEED_CHUNK_SIZE);
+            for (var index = start; index < Math.min(start + SEED_CHUNK_SIZE, DEVICES); index++) {
+                chunk.add(Device.builder()
+                        .id(UUID.randomUUID())
+                        .name("Device " + index)
+                        .brand(BRANDS[random.nextInt(BRANDS.length)])
+                        .state(State.values()[random.nextInt(State.values().length)])
+                        .build());
+            }
+            this.repository.insertUnordered(chunk);
+            chunk.forEach(device -> ids.add(device.getId()));
+        }
+        return ids;
+    }
+
+    private HttpRequest request(final Operation operation, final UUID id) {
+        final var random = current();
+        final var builder = switch (operation) {
+            case READ_ONE -> HttpRequest.newBuilder(this.uri("/devices/" + id)).GET();
+            case LIST -> HttpRequest.newBuilder(this.uri("/devices?size=20&brand=%s&state=%s".formatted(
+                    BRANDS[random.nextInt(BRANDS.length)], STATES[random.nextInt(STATES.length)]))).GET();
+            case UPDATE -> HttpRequest.newBuilder(this.uri("/devices/" + id))
+                    .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                    .method("PATCH", ofString("{\"state\":\"%s\"}".formatted(STATES[random.nextInt(STATES.length)])));
+            case DELETE -> HttpRequest.newBuilder(this.uri("/devices/" + id)).DELETE();
+        };
+        return builder.header(AUTHORIZATION, "Bearer token").build();
+    }
+
+    private URI uri(final String path) {
+        return URI.create("http://localhost:" + this.port + path);
+    }
+
+    private void report(final Map<Operation, Result> results, final Duration elapsed) {
+        System.out.printf("%nDevices: %d, concurrency: %d, duration: %ds%n", DEVICES, CONCURRENCY, elapsed.toSeconds());
+        System.out.printf("%-10s %10s %12s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "4xx", "5xx");
+        results.forEach((operation, result) -> {
+            final Histogram latencies = result.latencies;
+            System.out.printf("%-10s %10d %12.1f %10.2f %10.2f %10.2f %10d %10d%n",
+                    operation,
+                    latencies.getTotalCount(),
+                    latencies.getTotalCount() / (elapsed.toMillis() / 1000.0),
+                    latencies.getValueAtPercentile(50) / 1_000_000.0,
+                    latencies.getValueAtPercentile(99) / 1_000_000.0,
+                    latencies.getValueAtPercentile(99.9) / 1_000_000.0,
+                    result.clientErrors.sum(),
+                    result.serverErrors.sum());
+        });
+    }
+
+    private enum Operation {
+        READ_ONE, LIST, UPDATE, DELETE
+    }
+
+    private record Workload(int read, int list, int update, int delete) {
+
+        Operation next() {
+            final var pick = current().nextInt(this.read + this.list + this.update + this.delete);
+            if (pick < this.read) return Operation.READ_ONE;
+            if (pick < this.read + this.list) return Operation.LIST;
+            if (pick < this.read + this.list + this.update) return Operation.UPDATE;
+            return Operation.DELETE;
+        }
+    }
+
+    private static final class Result {
+
+        private final ConcurrentHistogram latencies = new ConcurrentHistogram(SECONDS.toNanos(60), 3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        private void record(final long latency, final int status) {
+            this.latencies.recordValue(Math.min(latency, SECONDS.toNanos(60)));
+            if (status >= 500) this.serverErrors.increment();
+            else if (status >= 400) this.clientErrors.increment();
+        }
+    }
+}
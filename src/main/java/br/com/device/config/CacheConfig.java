@@ -0,0 +1,26 @@
+package br.com.device.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DEVICES_CACHE = "devices";
+    public static final String DEVICE_COUNTS_CACHE = "device-counts";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${device.cache.devices}") final String devicesSpec,
+                                     @Value("${device.cache.device-counts}") final String deviceCountsSpec) {
+        final var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(DEVICES_CACHE, Caffeine.from(devicesSpec).build());
+        cacheManager.registerCustomCache(DEVICE_COUNTS_CACHE, Caffeine.from(deviceCountsSpec).build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.device.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Verifies each bearer token once. Verified tokens are cached until they expire, keyed by a hash of the raw token
+ * so tokens are not kept in memory. Rejected tokens and tokens without expiration are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final String KEY_ALGORITHM = "SHA-256";
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> tokens;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer verification;
+
+    public CachingJwtDecoder(final JwtDecoder delegate, final long maxSize, final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Jwt>creating((_, jwt) -> Duration.between(Instant.now(), jwt.getExpiresAt())))
+                .build();
+        this.hits = meterRegistry.counter("device.jwt.cache", "result", "hit");
+        this.misses = meterRegistry.counter("device.jwt.cache", "result", "miss");
+        this.verification = meterRegistry.timer("device.jwt.verification");
+    }
+
+    @Override
+    public Jwt decode(final String token) throws JwtException {
+        final var key = hash(token);
+        final var cached = this.tokens.getIfPresent(key);
+        if (cached != null) {
+            this.hits.increment();
+            return cached;
+        }
+        this.misses.increment();
+        final var jwt = this.verification.record(() -> this.delegate.decode(token));
+        if (jwt.getExpiresAt() != null) this.tokens.put(key, jwt);
+        return jwt;
+    }
+
+    private static String hash(final String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(KEY_ALGORITHM).digest(token.getBytes(UTF_8)));
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.device.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Records how long operations wait to check a connection out of the Mongo connection pool, which the pool gauges
+ * published by default do not show.
+ */
+public class ConnectionPoolWaitListener implements ConnectionPoolListener {
+
+    static final String POOL_WAIT = "device.mongo.pool.wait";
+
+    private final Timer acquired;
+    private final Timer failed;
+
+    public ConnectionPoolWaitListener(final MeterRegistry meterRegistry) {
+        this.acquired = timer(meterRegistry, "acquired");
+        this.failed = timer(meterRegistry, "failed");
+    }
+
+    @Override
+    public void connectionCheckedOut(final ConnectionCheckedOutEvent event) {
+        this.acquired.record(event.getElapsedTime(NANOSECONDS), NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(final ConnectionCheckOutFailedEvent event) {
+        this.failed.record(event.getElapsedTime(NANOSECONDS), NANOSECONDS);
+    }
+
+    private static Timer timer(final MeterRegistry meterRegistry, final String outcome) {
+        return Timer.builder(POOL_WAIT)
+                .description("Time spent waiting for a Mongo connection")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.device.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event covering a single {@link br.com.device.service.DeviceService} operation, including its retries.
+ */
+@Name(DeviceOperationEvent.NAME)
+@Label("Device Operation")
+@Category("Device Service")
+@Description("Device service operation with its database and mapping times")
+public class DeviceOperationEvent extends Event {
+
+    public static final String NAME = "br.com.device.DeviceOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Device Id")
+    String deviceId;
+
+    @Label("Filter")
+    @Description("Device fields the operation filters on")
+    String filter;
+
+    @Label("Mongo Commands")
+    int mongoCommands;
+
+    @Label("Mongo Time")
+    @Timespan
+    long mongoTime;
+
+    @Label("Mapping Time")
+    @Timespan
+    long mappingTime;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Circuit Breaker State")
+    String circuitBreakerState;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,132 @@
+package br.com.device.config;
+
+import br.com.device.dto.DeviceData;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
+import static org.springframework.core.Ordered.LOWEST_PRECEDENCE;
+
+/**
+ * Emits a {@link DeviceOperationEvent} for every {@link br.com.device.service.DeviceService} operation while the event
+ * is enabled in a flight recording, otherwise the operations run untouched. The event of the running operation is held
+ * by its thread, so the Mongo commands, mapping calls and attempts it performs are added to it.
+ */
+@Aspect
+@Component
+@Order(HIGHEST_PRECEDENCE)
+public class DeviceOperationRecorder implements CommandListener {
+
+    private static final ThreadLocal<DeviceOperationEvent> CURRENT = new ThreadLocal<>();
+    private static final String FILTER_PARAMETER = "filter";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Map<Method, Optional<String>> circuitBreakers = new ConcurrentHashMap<>();
+
+    public DeviceOperationRecorder(final CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @Around("execution(public * br.com.device.service.DeviceService.*(..))")
+    public Object record(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final var event = new DeviceOperationEvent();
+        if (!event.isEnabled()) return joinPoint.proceed();
+        final var previous = CURRENT.get();
+        CURRENT.set(event);
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (final Throwable throwable) {
+            event.failure = throwable.getClass().getName();
+            throw throwable;
+        } finally {
+            event.end();
+            CURRENT.set(previous);
+            if (event.shouldCommit()) this.commit(event, (MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+        }
+    }
+
+    @Override
+    public void commandSucceeded(final CommandSucceededEvent event) {
+        mongoCommand(event.getElapsedTime(NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(final CommandFailedEvent event) {
+        mongoCommand(event.getElapsedTime(NANOSECONDS));
+    }
+
+    private void commit(final DeviceOperationEvent event, final MethodSignature signature, final Object[] args) {
+        event.operation = signature.getName();
+        final var parameterNames = signature.getParameterNames();
+        for (var i = 0; i < args.length; i++) {
+            if (args[i] instanceof UUID id && event.deviceId == null) event.deviceId = id.toString();
+            if (args[i] instanceof DeviceData filter && FILTER_PARAMETER.equals(parameterNames[i])) event.filter = filterShape(filter);
+        }
+        this.circuitBreakers.computeIfAbsent(signature.getMethod(), method ->
+                        Optional.ofNullable(method.getAnnotation(CircuitBreaker.class)).map(CircuitBreaker::name))
+                .ifPresent(name -> event.circuitBreakerState = this.circuitBreakerRegistry.circuitBreaker(name).getState().name());
+        event.commit();
+    }
+
+    private static String filterShape(final DeviceData filter) {
+        final var fields = new StringJoiner(",");
+        if (filter.name() != null) fields.add("name");
+        if (filter.brand() != null) fields.add("brand");
+        if (filter.state() != null) fields.add("state");
+        return fields.toString();
+    }
+
+    private static void mongoCommand(final long elapsedNanos) {
+        final var event = CURRENT.get();
+        if (event == null) return;
+        event.mongoCommands++;
+        event.mongoTime += elapsedNanos;
+    }
+
+    /**
+     * Runs inside the retry and circuit breaker aspects, so every attempt of the current operation is counted,
+     * and measures the mapper calls the operation makes.
+     */
+    @Aspect
+    @Component
+    @Order(LOWEST_PRECEDENCE)
+    static class Attempts {
+
+        @Around("execution(public * br.com.device.service.DeviceService.*(..))")
+        public Object attempt(final ProceedingJoinPoint joinPoint) throws Throwable {
+            final var event = CURRENT.get();
+            if (event != null) event.attempts++;
+            return joinPoint.proceed();
+        }
+
+        @Around("execution(public * br.com.device.mapper.DeviceDataMapper.*(..))")
+        public Object map(final ProceedingJoinPoint joinPoint) throws Throwable {
+            final var event = CURRENT.get();
+            if (event == null) return joinPoint.proceed();
+            final var start = System.nanoTime();
+            try {
+                return joinPoint.proceed();
+            } finally {
+                event.mappingTime += System.nanoTime() - start;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.device.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.util.Optional.ofNullable;
+import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+/**
+ * Starts, dumps and stops named flight recordings, which always include the {@link DeviceOperationEvent}. Only a few
+ * recordings run at a time and each one keeps a bounded amount of data on disk. The endpoint is not exposed by default
+ * and requires an authenticated request when it is.
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private static final String DEFAULT_SETTINGS = "default";
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(30);
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String DUMP_PREFIX = "flightrecorder-";
+
+    private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+    private final int maxRecordings;
+    private final DataSize maxSize;
+
+    public FlightRecorderEndpoint(@Value("${device.jfr.max-recordings}") final int maxRecordings,
+                                  @Value("${device.jfr.max-size}") final DataSize maxSize) {
+        this.maxRecordings = maxRecordings;
+        this.maxSize = maxSize;
+    }
+
+    @ReadOperation
+    public Map<String, RecordingData> recordings() {
+        final var result = new TreeMap<String, RecordingData>();
+        this.recordings.forEach((name, recording) -> result.put(name, RecordingData.of(recording)));
+        return result;
+    }
+
+    /**
+     * Starts a recording unless one with the same name is running. Older data is discarded once the recording reaches
+     * the maximum size.
+     *
+     * @param name     recording name.
+     * @param settings JFR settings, either {@code default} or {@code profile}.
+     * @param maxAge   how long recorded data is kept, 30 minutes if not provided.
+     * @return started or running recording.
+     * @throws InvalidEndpointRequestException if the name is invalid or the maximum number of recordings are running.
+     */
+    @WriteOperation
+    public synchronized RecordingData start(@Selector final String name, @Nullable final String settings, @Nullable final Duration maxAge) throws IOException, ParseException {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new InvalidEndpointRequestException("Recording name must match " + NAME_PATTERN.pattern(),
+                    "Invalid recording name");
+        }
+        final var configuration = Configuration.getConfiguration(ofNullable(settings).orElse(DEFAULT_SETTINGS));
+        if (!this.recordings.containsKey(name) && this.recordings.size() >= this.maxRecordings) {
+            throw new InvalidEndpointRequestException("At most " + this.maxRecordings + " recordings can run at a time",
+                    "Too many running recordings");
+        }
+        final var recording = this.recordings.computeIfAbsent(name, _ -> {
+            final var started = new Recording(configuration);
+            started.setName(name);
+            started.setToDisk(true);
+            started.setMaxAge(ofNullable(maxAge).orElse(DEFAULT_MAX_AGE));
+            started.setMaxSize(this.maxSize.toBytes());
+            started.enable(DeviceOperationEvent.NAME);
+            started.start();
+            return started;
+        });
+        return RecordingData.of(recording);
+    }
+
+    /**
+     * Dumps the data recorded so far, the recording keeps running. The dump is streamed from a temporary file that is
+     * deleted once the stream is closed.
+     *
+     * @param name recording name.
+     * @return recorded data in the JFR format, or null if there is no such recording.
+     */
+    @ReadOperation(produces = APPLICATION_OCTET_STREAM_VALUE)
+    public Resource dump(@Selector final String name) throws IOException {
+        final var recording = this.recordings.get(name);
+        if (recording == null) return null;
+        final var file = Files.createTempFile(DUMP_PREFIX, ".jfr");
+        try {
+            recording.dump(file);
+            return new InputStreamResource(Files.newInputStream(file, DELETE_ON_CLOSE));
+        } catch (final IOException | RuntimeException exception) {
+            Files.deleteIfExists(file);
+            throw exception;
+        }
+    }
+
+    /**
+     * Stops a recording and discards its data.
+     *
+     * @param name recording name.
+     * @return stopped recording, or null if there is no such recording.
+     */
+    @DeleteOperation
+    public synchronized RecordingData stop(@Selector final String name) {
+        final var recording = this.recordings.remove(name);
+        if (recording == null) return null;
+        recording.stop();
+        final var stopped = RecordingData.of(recording);
+        recording.close();
+        return stopped;
+    }
+
+    public record RecordingData(long id, String state, Duration maxAge, long size) {
+
+        static RecordingData of(final Recording recording) {
+            return new RecordingData(recording.getId(), recording.getState().name(), recording.getMaxAge(), recording.getSize());
+        }
+    }
+}
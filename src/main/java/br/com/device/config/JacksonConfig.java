@@ -0,0 +1,18 @@
+package br.com.device.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Serialization filters are provided per response, so beans whose filter is not provided are written whole.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtersCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
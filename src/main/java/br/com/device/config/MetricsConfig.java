@@ -0,0 +1,25 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Applies to both the imperative and the reactive Mongo clients, next to the command and pool listeners
+     * registered by the Mongo metrics auto-configuration.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolWaitCustomizer(final MeterRegistry meterRegistry) {
+        final var listener = new ConnectionPoolWaitListener(meterRegistry);
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(listener));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer deviceOperationRecorderCustomizer(final DeviceOperationRecorder recorder) {
+        return settings -> settings.addCommandListener(recorder);
+    }
+}
@@ -1,26 +1,120 @@
 package br.com.device.config;
 
 import br.com.device.model.Device;
+import br.com.device.model.State;
+import br.com.device.repository.DeviceIdGenerator;
+import br.com.device.repository.TimeOrderedDeviceIdGenerator;
+import io.github.resilience4j.common.bulkhead.configuration.BulkheadConfigCustomizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.util.UUID;
+
+import static java.util.List.of;
 import static java.util.Optional.ofNullable;
-import static java.util.UUID.randomUUID;
 
 @Configuration
 @EnableMongoAuditing
 @EnableMongoRepositories("br.com.device.repository")
 public class MongoConfig {
 
+    public static final String MONGO_BULKHEAD = "mongo-bulkhead";
+
+    @Bean
+    @ConditionalOnProperty(name = "device.id.generator", havingValue = "time-ordered", matchIfMissing = true)
+    public DeviceIdGenerator timeOrderedDeviceIdGenerator() {
+        return new TimeOrderedDeviceIdGenerator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "device.id.generator", havingValue = "random")
+    public DeviceIdGenerator randomDeviceIdGenerator() {
+        return UUID::randomUUID;
+    }
+
     @Bean
-    public BeforeConvertCallback<Device> fillDeviceIdCallback() {
+    public BeforeConvertCallback<Device> fillDeviceIdCallback(final DeviceIdGenerator idGenerator) {
         return (device, _) -> {
-            final var id = ofNullable(device.getId()).orElse(randomUUID());
+            final var id = ofNullable(device.getId()).orElseGet(idGenerator::generate);
             device.setId(id);
             return device;
         };
     }
+
+    /**
+     * Sizes the connection pool from the same property as the bulkhead in front of the device operations, so
+     * operations wait for a permit on a semaphore rather than for a connection inside the driver.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolSizeCustomizer(@Value("${device.mongo.max-pool-size}") final int maxPoolSize) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize));
+    }
+
+    /**
+     * Leaves out of the bulkhead the connections held outside of it, by the change stream listener and by streaming
+     * exports still reading their cursor, so permitted operations always find a connection in the pool.
+     */
+    @Bean
+    public BulkheadConfigCustomizer mongoBulkheadCustomizer(@Value("${device.mongo.max-pool-size}") final int maxPoolSize,
+                                                            @Value("${device.mongo.reserved-connections}") final int reservedConnections) {
+        return BulkheadConfigCustomizer.of(MONGO_BULKHEAD, bulkhead -> bulkhead.maxConcurrentCalls(maxPoolSize - reservedConnections));
+    }
+
+    /**
+     * Stores {@link State} by its constant name, as the default enum handling does, but through precomputed lookups
+     * instead of {@link Enum#valueOf(Class, String)}. Like it, reading an unknown name fails.
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(of(StateWritingConverter.INSTANCE, StateReadingConverter.INSTANCE));
+    }
+
+    /**
+     * Ensures the indexes declared on {@link Device} exist. Index creation is idempotent, so it is safe on every startup.
+     */
+    @Bean
+    public ApplicationRunner deviceIndexesInitializer(final MongoOperations operations, final MongoMappingContext mappingContext) {
+        return _ -> {
+            final var indexOperations = operations.indexOps(Device.class);
+            IndexResolver.create(mappingContext)
+                    .resolveIndexFor(Device.class)
+                    .forEach(indexOperations::ensureIndex);
+        };
+    }
+
+    @WritingConverter
+    enum StateWritingConverter implements Converter<State, String> {
+        INSTANCE;
+
+        @Override
+        public String convert(final State source) {
+            return source.name();
+        }
+    }
+
+    @ReadingConverter
+    enum StateReadingConverter implements Converter<String, State> {
+        INSTANCE;
+
+        @Override
+        public State convert(final String source) {
+            final var state = State.fromName(source);
+            if (state == null) throw new IllegalArgumentException("Unknown device state " + source);
+            return state;
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples up to a fixed number of traces per second. Traces beyond the rate are recorded without being sampled and
+ * their spans are marked, so failed or slow ones can still be exported. Child spans follow the decision of their parent.
+ */
+public class RateLimitingSampler implements Sampler {
+
+    public static final AttributeKey<Boolean> RECORD_ONLY = AttributeKey.booleanKey("sampling.record_only");
+
+    private static final SamplingResult SAMPLED_RESULT = SamplingResult.recordAndSample();
+    private static final SamplingResult RECORD_ONLY_RESULT = SamplingResult.create(SamplingDecision.RECORD_ONLY, Attributes.of(RECORD_ONLY, true));
+
+    private final int ratePerSecond;
+    private final LongSupplier clock;
+    private final AtomicLong window = new AtomicLong();
+    private final Counter sampled;
+    private final Counter recorded;
+
+    public RateLimitingSampler(final int ratePerSecond, final MeterRegistry meterRegistry) {
+        this(ratePerSecond, meterRegistry, System::currentTimeMillis);
+    }
+
+    RateLimitingSampler(final int ratePerSecond, final MeterRegistry meterRegistry, final LongSupplier clock) {
+        this.ratePerSecond = ratePerSecond;
+        this.clock = clock;
+        this.sampled = meterRegistry.counter("device.tracing.spans", "decision", "sampled");
+        this.recorded = meterRegistry.counter("device.tracing.spans", "decision", "record-only");
+    }
+
+    @Override
+    public SamplingResult shouldSample(final Context parentContext,
+                                       final String traceId,
+                                       final String name,
+                                       final SpanKind spanKind,
+                                       final Attributes attributes,
+                                       final List<LinkData> parentLinks) {
+        final var parent = Span.fromContext(parentContext).getSpanContext();
+        if (parent.isValid() ? parent.isSampled() : this.acquire()) {
+            this.sampled.increment();
+            return SAMPLED_RESULT;
+        }
+        this.recorded.increment();
+        return RECORD_ONLY_RESULT;
+    }
+
+    @Override
+    public String getDescription() {
+        return "RateLimitingSampler{ratePerSecond=" + this.ratePerSecond + "}";
+    }
+
+    /**
+     * Counts the traces started in the current second, packed with the second in a single atomic value.
+     */
+    private boolean acquire() {
+        final var second = this.clock.getAsLong() / 1000;
+        final var current = this.window.updateAndGet(previous -> previous >>> 32 == second ? previous + 1 : second << 32 | 1);
+        return (current & 0xFFFFFFFFL) <= this.ratePerSecond;
+    }
+}
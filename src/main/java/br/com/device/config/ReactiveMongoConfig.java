@@ -0,0 +1,30 @@
+package br.com.device.config;
+
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceIdGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+import static reactor.core.publisher.Mono.just;
+
+/**
+ * Reactive repositories and entity callbacks, the reactive template does not invoke the blocking ones declared in {@link MongoConfig}.
+ */
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoAuditing
+@EnableReactiveMongoRepositories("br.com.device.repository")
+public class ReactiveMongoConfig {
+
+    @Bean
+    public ReactiveBeforeConvertCallback<Device> fillReactiveDeviceIdCallback(final DeviceIdGenerator idGenerator) {
+        return (device, _) -> {
+            if (device.getId() == null) device.setId(idGenerator.generate());
+            return just(device);
+        };
+    }
+}
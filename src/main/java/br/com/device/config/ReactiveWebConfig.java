@@ -0,0 +1,31 @@
+package br.com.device.config;
+
+import br.com.device.controller.DeviceProjectionEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureArgumentResolvers(final ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+    }
+
+    /**
+     * Replaces the JSON encoder registered by Spring Boot, so it is ordered after it.
+     */
+    @Bean
+    @Order(1)
+    public CodecCustomizer deviceProjectionCodecCustomizer(final ObjectMapper mapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new DeviceProjectionEncoder(mapper));
+    }
+}
@@ -1,19 +1,38 @@
 package br.com.device.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.oauth2.server.resource.OAuth2ResourceServerConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+
+import static com.nimbusds.jose.jwk.source.JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT;
+import static jakarta.servlet.DispatcherType.ASYNC;
 import static jakarta.servlet.DispatcherType.ERROR;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 
 @Configuration
+@Profile("!reactive")
 public class ResourceServerConfig {
 
     @Bean
@@ -22,12 +41,44 @@ public class ResourceServerConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(this.jwtConfigCustomizer()))
                 .sessionManagement(session -> session.sessionCreationPolicy(STATELESS))
-                .authorizeHttpRequests(authz -> authz.dispatcherTypeMatchers(ERROR).permitAll()
+                .authorizeHttpRequests(authz -> authz.dispatcherTypeMatchers(ERROR, ASYNC).permitAll()
+                        .requestMatchers("/actuator/flightrecorder/**").authenticated()
                         .requestMatchers("/actuator/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .anyRequest().authenticated())
                 .build();
     }
 
+    /**
+     * JWK set refreshed in the background before it expires, and kept while the authorization server is unavailable,
+     * so requests neither wait for nor fail with key set fetches.
+     */
+    @Bean
+    public JWKSource<SecurityContext> jwkSource(@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") final String jwkSetUri,
+                                                @Value("${device.jwt.jwk-set.ttl}") final Duration ttl,
+                                                @Value("${device.jwt.jwk-set.refresh-ahead}") final Duration refreshAhead,
+                                                @Value("${device.jwt.jwk-set.outage-ttl}") final Duration outageTtl) throws MalformedURLException {
+        return JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL())
+                .cache(ttl.toMillis(), DEFAULT_CACHE_REFRESH_TIMEOUT)
+                .refreshAheadCache(refreshAhead.toMillis(), true)
+                .outageTolerant(outageTtl.toMillis())
+                .build();
+    }
+
+    /**
+     * Verifies bearer tokens with the keys of the JWK set and caches the verified ones until they expire.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(final JWKSource<SecurityContext> jwkSource,
+                                 @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") final String issuerUri,
+                                 @Value("${device.jwt.cache-size}") final long cacheSize,
+                                 final MeterRegistry meterRegistry) {
+        final var processor = new DefaultJWTProcessor<SecurityContext>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        final var decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(decoder, cacheSize, meterRegistry);
+    }
+
     private Customizer<OAuth2ResourceServerConfigurer<HttpSecurity>.JwtConfigurer> jwtConfigCustomizer() {
         return configurer -> configurer.jwtAuthenticationConverter(new JwtAuthenticationConverter());
     }
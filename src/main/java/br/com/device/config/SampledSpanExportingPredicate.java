@@ -0,0 +1,39 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import io.micrometer.tracing.exporter.SpanExportingPredicate;
+
+import java.time.Duration;
+
+import static br.com.device.config.RateLimitingSampler.RECORD_ONLY;
+
+/**
+ * Exports sampled spans, and spans recorded beyond the sampling rate only if they failed or were slow.
+ */
+public class SampledSpanExportingPredicate implements SpanExportingPredicate {
+
+    private static final String OUTCOME = "outcome";
+    private static final String SERVER_ERROR = "SERVER_ERROR";
+
+    private final Duration slowThreshold;
+    private final Counter exported;
+    private final Counter filtered;
+
+    public SampledSpanExportingPredicate(final Duration slowThreshold, final MeterRegistry meterRegistry) {
+        this.slowThreshold = slowThreshold;
+        this.exported = meterRegistry.counter("device.tracing.exports", "result", "exported");
+        this.filtered = meterRegistry.counter("device.tracing.exports", "result", "filtered");
+    }
+
+    @Override
+    public boolean isExportable(final FinishedSpan span) {
+        final var export = !Boolean.parseBoolean(span.getTags().get(RECORD_ONLY.getKey()))
+                || span.getError() != null
+                || SERVER_ERROR.equals(span.getTags().get(OUTCOME))
+                || Duration.between(span.getStartTimestamp(), span.getEndTimestamp()).compareTo(this.slowThreshold) >= 0;
+        (export ? this.exported : this.filtered).increment();
+        return export;
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.DoublePointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.PointData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+
+import static io.opentelemetry.sdk.metrics.data.AggregationTemporality.CUMULATIVE;
+
+/**
+ * Publishes the queue size and the processed spans the OpenTelemetry batch span processor records, so spans dropped
+ * because the export queue was full show up next to the other metrics. The processor reports them through the
+ * OpenTelemetry meter provider, which reads them on demand when the Micrometer meters are polled.
+ */
+public class SpanProcessorMetrics implements MetricReader, MeterBinder {
+
+    static final String QUEUE_SIZE = "queueSize";
+    static final String PROCESSED_SPANS = "processedSpans";
+
+    private static final AttributeKey<Boolean> DROPPED = AttributeKey.booleanKey("dropped");
+
+    private volatile CollectionRegistration registration = CollectionRegistration.noop();
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        Gauge.builder("device.tracing.queue.size", this, metrics -> metrics.value(QUEUE_SIZE, Attributes.empty()))
+                .description("Spans waiting in the export queue")
+                .register(meterRegistry);
+        this.processed(meterRegistry, false);
+        this.processed(meterRegistry, true);
+    }
+
+    @Override
+    public void register(final CollectionRegistration registration) {
+        this.registration = registration;
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(final InstrumentType instrumentType) {
+        return CUMULATIVE;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        this.registration = CollectionRegistration.noop();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Sums the latest points of a metric with the provided attributes.
+     *
+     * @param name       metric name.
+     * @param attributes attributes the points must have.
+     * @return sum of the matching points, zero if the metric was not recorded.
+     */
+    double value(final String name, final Attributes attributes) {
+        return this.registration.collectAllMetrics().stream()
+                .filter(metric -> metric.getName().equals(name))
+                .flatMap(metric -> metric.getData().getPoints().stream())
+                .filter(point -> point.getAttributes().asMap().entrySet().containsAll(attributes.asMap().entrySet()))
+                .mapToDouble(SpanProcessorMetrics::valueOf)
+                .sum();
+    }
+
+    private void processed(final MeterRegistry meterRegistry, final boolean dropped) {
+        FunctionCounter.builder("device.tracing.processed", this, metrics -> metrics.value(PROCESSED_SPANS, Attributes.of(DROPPED, dropped)))
+                .description("Spans handed to the exporter, or dropped because the export queue was full")
+                .tag("dropped", String.valueOf(dropped))
+                .register(meterRegistry);
+    }
+
+    private static double valueOf(final PointData point) {
+        return switch (point) {
+            case LongPointData longPoint -> longPoint.getValue();
+            case DoublePointData doublePoint -> doublePoint.getValue();
+            default -> 0;
+        };
+    }
+}
@@ -1,10 +1,16 @@
 package br.com.device.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.exporter.SpanExportingPredicate;
 import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 import static io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter.builder;
 
 @Configuration
@@ -14,4 +20,29 @@ public class TracingConfig {
     public OtlpGrpcSpanExporter spanExporter(@Value("${management.otlp.tracing.endpoint}") final String url) {
         return builder().setEndpoint(url).build();
     }
+
+    @Bean
+    public Sampler sampler(@Value("${device.tracing.rate-per-second}") final int ratePerSecond,
+                           final MeterRegistry meterRegistry) {
+        return new RateLimitingSampler(ratePerSecond, meterRegistry);
+    }
+
+    @Bean
+    public SpanExportingPredicate spanExportingPredicate(@Value("${device.tracing.slow-threshold}") final Duration slowThreshold,
+                                                         final MeterRegistry meterRegistry) {
+        return new SampledSpanExportingPredicate(slowThreshold, meterRegistry);
+    }
+
+    @Bean
+    public SpanProcessorMetrics spanProcessorMetrics() {
+        return new SpanProcessorMetrics();
+    }
+
+    /**
+     * Meter provider the batch span processor reports its queue size and dropped spans to.
+     */
+    @Bean
+    public SdkMeterProvider meterProvider(final SpanProcessorMetrics spanProcessorMetrics) {
+        return SdkMeterProvider.builder().registerMetricReader(spanProcessorMetrics).build();
+    }
 }
@@ -0,0 +1,77 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads pinned to their carrier for longer than the threshold, as happens when they block inside
+ * {@code synchronized} blocks or native frames. While pinned, a virtual thread holds one of the few carriers every
+ * other request runs on.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final Timer pinned;
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${device.pinning.threshold}") final Duration threshold,
+                                       final MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder("device.virtual-threads.pinned")
+                .description("Time virtual threads spent pinned to their carrier")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        final var events = new RecordingStream();
+        events.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        events.onEvent(PINNED_EVENT, this::pinned);
+        events.startAsync();
+        this.stream = events;
+        log.info("a=start, t={}", this.threshold);
+    }
+
+    @Override
+    public void stop() {
+        this.stream.close();
+        this.stream = null;
+        log.info("a=stop, t={}", this.threshold);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.stream != null;
+    }
+
+    private void pinned(final RecordedEvent event) {
+        this.pinned.record(event.getDuration());
+        log.warn("a=pinned, d={}, f={}", event.getDuration(), pinningFrame(event));
+    }
+
+    /**
+     * Finds the first frame outside the JDK, which is usually the code that entered the {@code synchronized} block.
+     */
+    private static String pinningFrame(final RecordedEvent event) {
+        return event.getStackTrace().getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .filter(frame -> !frame.getMethod().getType().getName().startsWith("java.")
+                        && !frame.getMethod().getType().getName().startsWith("jdk."))
+                .findFirst()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .orElse("unknown");
+    }
+}
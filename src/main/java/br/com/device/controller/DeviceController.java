@@ -1,31 +1,65 @@
 package br.com.device.controller;
 
+import br.com.device.dto.BatchItemData;
+import br.com.device.dto.CursorPageData;
 import br.com.device.dto.DeviceData;
 import br.com.device.dto.DeviceData.BasicInfo;
 import br.com.device.dto.DeviceData.StateInfo;
+import br.com.device.dto.DeviceLookupData;
+import br.com.device.dto.DeviceLookupResultData;
+import br.com.device.dto.DeviceStatsData;
+import br.com.device.dto.ImportSummaryData;
+import br.com.device.dto.SliceData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.dto.StateChangeResultData;
+import br.com.device.exception.PreconditionFailedException;
+import br.com.device.repository.DeviceProjection;
+import br.com.device.service.DeviceBatchService;
+import br.com.device.service.DeviceChangeFeed;
+import br.com.device.service.DeviceChangeListener;
 import br.com.device.service.DeviceService;
+import br.com.device.service.DeviceStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import static org.springframework.http.HttpStatus.CREATED;
-import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/devices")
 @SecurityRequirement(name = "oauth2")
 public class DeviceController {
 
     private final DeviceService service;
+    private final DeviceBatchService batchService;
+    private final DeviceChangeFeed changeFeed;
+    private final ObjectProvider<DeviceChangeListener> changeListener;
+    private final DeviceStatsService statsService;
+    private final ObjectMapper mapper;
 
     @PostMapping
     @ResponseStatus(CREATED)
@@ -34,34 +68,162 @@ public class DeviceController {
         return this.service.save(request);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemData> createAll(@RequestBody final List<DeviceData> request) {
+        log.info("a=createAll, s={}", request.size());
+        return this.batchService.saveAll(request);
+    }
+
+    @PostMapping("/lookup")
+    public DeviceLookupResultData lookup(@RequestBody @Validated final DeviceLookupData request) {
+        log.info("a=lookup, s={}", request.ids().size());
+        return this.batchService.lookup(request.ids());
+    }
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ImportSummaryData importAll(final InputStream request) throws IOException {
+        log.info("a=importAll");
+        return this.batchService.importAll(request);
+    }
+
     @GetMapping
-    public PagedModel<DeviceData> readAll(@PageableDefault final Pageable pageable, final DeviceData filter) {
-        log.info("a=readAll, p={}, f={}", pageable, filter);
-        return new PagedModel<>(this.service.readAll(pageable, filter));
+    public PagedModel<DeviceData> readAll(@PageableDefault final Pageable pageable, final DeviceData filter,
+                                          @RequestParam(required = false) final String fields) {
+        log.info("a=readAll, p={}, f={}, fs={}", pageable, filter, fields);
+        return new PagedModel<>(this.service.readAll(pageable, filter, DeviceProjection.parse(fields)));
+    }
+
+    @GetMapping(params = {"count=estimated", "!cursor"})
+    public PagedModel<DeviceData> readAllEstimated(@PageableDefault final Pageable pageable, final DeviceData filter,
+                                                   @RequestParam(required = false) final String fields) {
+        log.info("a=readAllEstimated, p={}, f={}, fs={}", pageable, filter, fields);
+        return new PagedModel<>(this.service.readAllEstimated(pageable, filter, DeviceProjection.parse(fields)));
+    }
+
+    @GetMapping(params = {"count=none", "!cursor"})
+    public SliceData<DeviceData> readSlice(@PageableDefault final Pageable pageable, final DeviceData filter,
+                                           @RequestParam(required = false) final String fields) {
+        log.info("a=readSlice, p={}, f={}, fs={}", pageable, filter, fields);
+        final var slice = this.service.readSlice(pageable, filter, DeviceProjection.parse(fields));
+        return new SliceData<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    @GetMapping(params = "cursor")
+    public CursorPageData<DeviceData> readAll(@RequestParam final String cursor, @PageableDefault final Pageable pageable, final DeviceData filter,
+                                              @RequestParam(required = false) final String fields) {
+        log.info("a=readAll, c={}, p={}, f={}, fs={}", cursor, pageable, filter, fields);
+        return this.service.readAll(cursor, pageable, filter, DeviceProjection.parse(fields));
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody export(final DeviceData filter) {
+        log.info("a=export, f={}", filter);
+        final var devices = this.batchService.export(filter);
+        return output -> {
+            try (devices) {
+                final var iterator = devices.iterator();
+                while (iterator.hasNext()) {
+                    output.write(this.mapper.writeValueAsBytes(iterator.next()));
+                    output.write('\n');
+                }
+            }
+        };
+    }
+
+    @GetMapping("/stats")
+    public DeviceStatsData stats() {
+        log.info("a=stats");
+        return this.statsService.stats();
     }
 
+    /**
+     * Streams device changes as server-sent events. Nothing would ever be published without the change listener,
+     * so the stream is answered with {@code 404 Not Found} instead of being held open until it times out.
+     * The subscription is cancelled on completion, which also follows timeouts and errors.
+     */
+    @GetMapping(value = "/changes", produces = TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> changes(final DeviceData filter) {
+        log.info("a=changes, f={}", filter);
+        if (this.changeListener.getIfAvailable() == null) return ResponseEntity.notFound().build();
+        final var emitter = new SseEmitter();
+        final var subscription = this.changeFeed.subscribe(filter,
+                change -> emitter.send(event().name(change.type()).data(change)),
+                emitter::complete);
+        emitter.onCompletion(subscription::cancel);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Reads one device tagged with its version and requested fields. A matching {@code If-None-Match} header is
+     * answered with {@code 304 Not Modified} without writing the body. Devices are cached whole, so the requested
+     * fields only limit the serialized ones.
+     */
     @GetMapping("/{id}")
-    public DeviceData readOne(@PathVariable final UUID id) {
-        log.info("a=readOne, id={}", id);
-        return this.service.readOne(id);
+    public ResponseEntity<DeviceData> readOne(@PathVariable final UUID id, @RequestParam(required = false) final String fields) {
+        log.info("a=readOne, id={}, fs={}", id, fields);
+        final var projection = DeviceProjection.parse(fields);
+        return tagged(this.service.readOne(id), projection);
     }
 
     @PutMapping("/{id}")
-    public DeviceData update(@PathVariable final UUID id, @RequestBody @Validated(BasicInfo.class) final DeviceData request) {
-        log.info("a=update, id={}, r={}", id, request);
-        return this.service.update(id, request);
+    public ResponseEntity<DeviceData> update(@PathVariable final UUID id,
+                                             @RequestHeader(value = IF_MATCH, required = false) final String ifMatch,
+                                             @RequestBody @Validated(BasicInfo.class) final DeviceData request) {
+        log.info("a=update, id={}, v={}, r={}", id, ifMatch, request);
+        return tagged(this.service.update(id, request, expectedVersion(ifMatch)));
     }
 
     @PatchMapping("/{id}")
-    public DeviceData partiallyUpdate(@PathVariable final UUID id, @RequestBody @Validated(StateInfo.class) final DeviceData request) {
-        log.info("a=partiallyUpdate, id={}, r={}", id, request);
-        return this.service.update(id, request);
+    public ResponseEntity<DeviceData> partiallyUpdate(@PathVariable final UUID id,
+                                                      @RequestHeader(value = IF_MATCH, required = false) final String ifMatch,
+                                                      @RequestBody @Validated(StateInfo.class) final DeviceData request) {
+        log.info("a=partiallyUpdate, id={}, v={}, r={}", id, ifMatch, request);
+        return tagged(this.service.update(id, request, expectedVersion(ifMatch)));
+    }
+
+    @PatchMapping("/state")
+    public StateChangeResultData updateState(@RequestBody @Validated final StateChangeData request) {
+        log.info("a=updateState, r={}", request);
+        return this.batchService.updateState(request);
     }
 
     @DeleteMapping("/{id}")
-    @ResponseStatus(NO_CONTENT)
-    public void delete(@PathVariable final UUID id) {
-        log.info("a=delete, id={}", id);
-        this.service.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable final UUID id,
+                                       @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        log.info("a=delete, id={}, v={}", id, ifMatch);
+        this.service.delete(id, expectedVersion(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
+
+    static ResponseEntity<DeviceData> tagged(final DeviceData device) {
+        return tagged(device, DeviceProjection.ALL);
+    }
+
+    /**
+     * Tags a projected device with its version and a hash of the requested fields, so a projection is never taken
+     * for the whole device or for another projection of the same version. Such tags never match {@code If-Match}.
+     */
+    static ResponseEntity<DeviceData> tagged(final DeviceData device, final DeviceProjection projection) {
+        final var version = String.valueOf(device.version());
+        if (projection.isAll()) return ResponseEntity.ok().eTag(version).body(device);
+        final var fields = String.join(",", new TreeSet<>(projection.fields()));
+        return ResponseEntity.ok().eTag(version + "-" + Integer.toHexString(fields.hashCode())).body(device);
+    }
+
+    /**
+     * Parses the version of an {@code If-Match} header. Absent and wildcard headers do not expect any version,
+     * weak or unknown tags never match since {@code If-Match} requires a strong comparison.
+     */
+    static Long expectedVersion(final String ifMatch) throws PreconditionFailedException {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) return null;
+        final var tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (final NumberFormatException _) {
+                // not a version of this service
+            }
+        }
+        throw new PreconditionFailedException("Device version does not match");
     }
 }
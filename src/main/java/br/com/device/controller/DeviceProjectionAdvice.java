@@ -0,0 +1,40 @@
+package br.com.device.controller;
+
+import br.com.device.dto.DeviceData;
+import br.com.device.repository.DeviceProjection;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import static org.springframework.http.HttpMethod.GET;
+
+/**
+ * Limits the serialized device fields of read responses to the ones requested in the {@code fields} parameter.
+ */
+@Profile("!reactive")
+@RestControllerAdvice(assignableTypes = DeviceController.class)
+public class DeviceProjectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    private static final String FIELDS = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(final MappingJacksonValue body,
+                                           final MediaType contentType,
+                                           final MethodParameter returnType,
+                                           final ServerHttpRequest request,
+                                           final ServerHttpResponse response) {
+        if (!GET.equals(request.getMethod())) return;
+        final var projection = DeviceProjection.parse(((ServletServerHttpRequest) request).getServletRequest().getParameter(FIELDS));
+        if (projection.isAll()) return;
+        body.setFilters(new SimpleFilterProvider()
+                .addFilter(DeviceData.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(projection.fields())));
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.device.controller;
+
+import br.com.device.dto.DeviceData;
+import br.com.device.repository.DeviceProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Hints;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+
+import static org.springframework.http.HttpMethod.GET;
+
+/**
+ * WebFlux counterpart of {@link DeviceProjectionAdvice}. Limits the serialized device fields of read responses to the
+ * ones requested in the {@code fields} parameter, which {@link ReactiveDeviceController} validates beforehand.
+ */
+public class DeviceProjectionEncoder extends Jackson2JsonEncoder {
+
+    private static final String FIELDS = "fields";
+    private static final String PROJECTION_HINT = DeviceProjectionEncoder.class.getName() + ".projection";
+    private static final String DEVICES_PATH = "/devices";
+
+    public DeviceProjectionEncoder(final ObjectMapper mapper) {
+        super(mapper);
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(@Nullable final ResolvableType actualType,
+                                              final ResolvableType elementType,
+                                              @Nullable final MediaType mediaType,
+                                              final ServerHttpRequest request,
+                                              final ServerHttpResponse response) {
+        final var hints = super.getEncodeHints(actualType, elementType, mediaType, request, response);
+        if (!GET.equals(request.getMethod()) || !request.getPath().pathWithinApplication().value().startsWith(DEVICES_PATH)) return hints;
+        final var projection = DeviceProjection.parse(request.getQueryParams().getFirst(FIELDS));
+        return projection.isAll() ? hints : Hints.merge(hints, PROJECTION_HINT, projection);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(final ObjectWriter writer,
+                                           @Nullable final MimeType mimeType,
+                                           final ResolvableType elementType,
+                                           @Nullable final Map<String, Object> hints) {
+        if (hints == null || !(hints.get(PROJECTION_HINT) instanceof DeviceProjection projection)) return writer;
+        return writer.with(new SimpleFilterProvider()
+                .addFilter(DeviceData.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(projection.fields())));
+    }
+}
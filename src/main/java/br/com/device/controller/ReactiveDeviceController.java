@@ -0,0 +1,161 @@
+package br.com.device.controller;
+
+import br.com.device.dto.CursorPageData;
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import br.com.device.dto.DeviceData.BasicInfo;
+import br.com.device.dto.DeviceData.StateInfo;
+import br.com.device.dto.DeviceLookupData;
+import br.com.device.dto.DeviceLookupResultData;
+import br.com.device.dto.DeviceStatsData;
+import br.com.device.dto.SliceData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.dto.StateChangeResultData;
+import br.com.device.repository.DeviceProjection;
+import br.com.device.service.DeviceChangeListener;
+import br.com.device.service.ReactiveDeviceService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static br.com.device.controller.DeviceController.expectedVersion;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+/**
+ * WebFlux counterpart of {@link DeviceController}, active in the reactive profile. It serves the same contract,
+ * except for bulk creation and NDJSON import, which are only served by the servlet stack.
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/devices")
+@SecurityRequirement(name = "oauth2")
+public class ReactiveDeviceController {
+
+    private final ReactiveDeviceService service;
+    private final ObjectProvider<DeviceChangeListener> changeListener;
+
+    @PostMapping
+    @ResponseStatus(CREATED)
+    public Mono<DeviceData> create(@RequestBody @Validated(BasicInfo.class) final DeviceData request) {
+        log.info("a=create, r={}", request);
+        return this.service.save(request);
+    }
+
+    @PostMapping("/lookup")
+    public Mono<DeviceLookupResultData> lookup(@RequestBody @Validated final DeviceLookupData request) {
+        log.info("a=lookup, s={}", request.ids().size());
+        return this.service.lookup(request.ids());
+    }
+
+    @GetMapping
+    public Mono<PagedModel<DeviceData>> readAll(@PageableDefault final Pageable pageable, final DeviceData filter,
+                                                @RequestParam(required = false) final String fields) {
+        log.info("a=readAll, p={}, f={}, fs={}", pageable, filter, fields);
+        return this.service.readAll(pageable, filter, DeviceProjection.parse(fields)).map(PagedModel::new);
+    }
+
+    @GetMapping(params = {"count=estimated", "!cursor"})
+    public Mono<PagedModel<DeviceData>> readAllEstimated(@PageableDefault final Pageable pageable, final DeviceData filter,
+                                                         @RequestParam(required = false) final String fields) {
+        log.info("a=readAllEstimated, p={}, f={}, fs={}", pageable, filter, fields);
+        return this.service.readAllEstimated(pageable, filter, DeviceProjection.parse(fields)).map(PagedModel::new);
+    }
+
+    @GetMapping(params = {"count=none", "!cursor"})
+    public Mono<SliceData<DeviceData>> readSlice(@PageableDefault final Pageable pageable, final DeviceData filter,
+                                                 @RequestParam(required = false) final String fields) {
+        log.info("a=readSlice, p={}, f={}, fs={}", pageable, filter, fields);
+        return this.service.readSlice(pageable, filter, DeviceProjection.parse(fields))
+                .map(slice -> new SliceData<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext()));
+    }
+
+    @GetMapping(params = "cursor")
+    public Mono<CursorPageData<DeviceData>> readAll(@RequestParam final String cursor, @PageableDefault final Pageable pageable, final DeviceData filter,
+                                                    @RequestParam(required = false) final String fields) {
+        log.info("a=readAll, c={}, p={}, f={}, fs={}", cursor, pageable, filter, fields);
+        return this.service.readAll(cursor, pageable, filter, DeviceProjection.parse(fields));
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public Flux<DeviceData> export(final DeviceData filter) {
+        log.info("a=export, f={}", filter);
+        return this.service.export(filter);
+    }
+
+    @GetMapping("/stats")
+    public Mono<DeviceStatsData> stats() {
+        log.info("a=stats");
+        return this.service.stats();
+    }
+
+    /**
+     * Streams device changes as server-sent events. Nothing would ever be published without the change listener,
+     * so the stream is answered with {@code 404 Not Found} instead of being held open.
+     */
+    @GetMapping(value = "/changes", produces = TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<DeviceChangeData>>> changes(final DeviceData filter) {
+        log.info("a=changes, f={}", filter);
+        if (this.changeListener.getIfAvailable() == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(this.service.changes(filter)
+                .map(change -> ServerSentEvent.builder(change).event(change.type()).build()));
+    }
+
+    /**
+     * Reads one device tagged with its version and requested fields. A matching {@code If-None-Match} header is
+     * answered with {@code 304 Not Modified} without writing the body.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<DeviceData>> readOne(@PathVariable final UUID id, @RequestParam(required = false) final String fields) {
+        log.info("a=readOne, id={}, fs={}", id, fields);
+        final var projection = DeviceProjection.parse(fields);
+        return this.service.readOne(id).map(device -> DeviceController.tagged(device, projection));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<DeviceData>> update(@PathVariable final UUID id,
+                                                   @RequestHeader(value = IF_MATCH, required = false) final String ifMatch,
+                                                   @RequestBody @Validated(BasicInfo.class) final DeviceData request) {
+        log.info("a=update, id={}, v={}, r={}", id, ifMatch, request);
+        return Mono.defer(() -> this.service.update(id, request, expectedVersion(ifMatch))).map(DeviceController::tagged);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<DeviceData>> partiallyUpdate(@PathVariable final UUID id,
+                                                            @RequestHeader(value = IF_MATCH, required = false) final String ifMatch,
+                                                            @RequestBody @Validated(StateInfo.class) final DeviceData request) {
+        log.info("a=partiallyUpdate, id={}, v={}, r={}", id, ifMatch, request);
+        return Mono.defer(() -> this.service.update(id, request, expectedVersion(ifMatch))).map(DeviceController::tagged);
+    }
+
+    @PatchMapping("/state")
+    public Mono<StateChangeResultData> updateState(@RequestBody @Validated final StateChangeData request) {
+        log.info("a=updateState, r={}", request);
+        return this.service.updateState(request);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable final UUID id,
+                                             @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        log.info("a=delete, id={}, v={}", id, ifMatch);
+        return Mono.defer(() -> this.service.delete(id, expectedVersion(ifMatch)))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,6 @@
+package br.com.device.dto;
+
+import java.util.List;
+
+public record BatchItemData(int index, DeviceData device, List<String> errors) {
+}
@@ -0,0 +1,6 @@
+package br.com.device.dto;
+
+import java.util.List;
+
+public record CursorPageData<T>(List<T> content, String next) {
+}
@@ -0,0 +1,13 @@
+package br.com.device.dto;
+
+import java.util.UUID;
+
+/**
+ * Change applied to a device.
+ *
+ * @param type   operation type, one of insert, update, replace or delete.
+ * @param id     device identifier.
+ * @param device device after the change, null when it was deleted.
+ */
+public record DeviceChangeData(String type, UUID id, DeviceData device) {
+}
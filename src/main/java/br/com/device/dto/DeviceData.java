@@ -1,8 +1,9 @@
 package br.com.device.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import lombok.Builder;
 import org.springframework.format.annotation.DateTimeFormat;
 
@@ -13,6 +14,7 @@ import static com.fasterxml.jackson.annotation.JsonProperty.Access.READ_ONLY;
 import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 
 @Builder
+@JsonFilter(DeviceData.FIELDS_FILTER)
 public record DeviceData(
         @JsonProperty(access = READ_ONLY)
         UUID id,
@@ -24,12 +26,21 @@ public record DeviceData(
         String brand,
 
         @NotBlank(message = "Device state is required", groups = BasicInfo.class)
-        @Pattern(regexp = "available|in-use|inactive", message = "State must be one of the following: available, in-use, inactive", groups = {BasicInfo.class, StateInfo.class})
+        @ValidState(groups = {BasicInfo.class, StateInfo.class})
         String state,
 
         @JsonProperty(access = READ_ONLY)
         @DateTimeFormat(iso = DATE_TIME)
-        Instant creationTime) {
+        Instant creationTime,
+
+        @JsonIgnore
+        Long version) {
+
+    /**
+     * Serialization filter limiting the written fields to the ones requested by the client, all fields are written
+     * if it is not provided.
+     */
+    public static final String FIELDS_FILTER = "deviceFields";
 
     public interface BasicInfo {
     }
@@ -0,0 +1,12 @@
+package br.com.device.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+public record DeviceLookupData(
+        @NotEmpty(message = "Device ids are required")
+        List<@NotNull(message = "Device id is required") UUID> ids) {
+}
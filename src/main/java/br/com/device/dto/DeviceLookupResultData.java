@@ -0,0 +1,7 @@
+package br.com.device.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record DeviceLookupResultData(List<DeviceData> devices, List<UUID> missing) {
+}
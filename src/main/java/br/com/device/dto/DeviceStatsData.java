@@ -0,0 +1,13 @@
+package br.com.device.dto;
+
+import java.util.Map;
+
+/**
+ * Number of devices overall, per state and per brand and state.
+ *
+ * @param total   number of devices.
+ * @param byState number of devices per state.
+ * @param byBrand number of devices per brand, then per state.
+ */
+public record DeviceStatsData(long total, Map<String, Long> byState, Map<String, Map<String, Long>> byBrand) {
+}
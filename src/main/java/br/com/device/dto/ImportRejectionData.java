@@ -0,0 +1,6 @@
+package br.com.device.dto;
+
+import java.util.List;
+
+public record ImportRejectionData(long line, List<String> errors) {
+}
@@ -0,0 +1,6 @@
+package br.com.device.dto;
+
+import java.util.List;
+
+public record ImportSummaryData(long inserted, long rejected, List<ImportRejectionData> rejections) {
+}
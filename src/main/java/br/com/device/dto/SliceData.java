@@ -0,0 +1,6 @@
+package br.com.device.dto;
+
+import java.util.List;
+
+public record SliceData<T>(List<T> content, int number, int size, boolean hasNext) {
+}
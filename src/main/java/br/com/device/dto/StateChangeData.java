@@ -0,0 +1,37 @@
+package br.com.device.dto;
+
+import br.com.device.dto.DeviceData.StateInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.groups.ConvertGroup;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record StateChangeData(
+        List<UUID> ids,
+
+        @Valid
+        @ConvertGroup(to = StateInfo.class)
+        DeviceData filter,
+
+        @NotBlank(message = "Device state is required")
+        @ValidState
+        String state) {
+
+    /**
+     * Requires the change to select devices, as an empty ids list or filter would change every device.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Either ids or filter is required")
+    public boolean isTargeted() {
+        final var hasIds = this.ids != null && !this.ids.isEmpty();
+        final var hasFilter = this.filter != null
+                && (this.filter.name() != null || this.filter.brand() != null || this.filter.state() != null);
+        return hasIds || hasFilter;
+    }
+}
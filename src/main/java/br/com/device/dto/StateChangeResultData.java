@@ -0,0 +1,4 @@
+package br.com.device.dto;
+
+public record StateChangeResultData(long matched, long modified) {
+}
@@ -0,0 +1,29 @@
+package br.com.device.dto;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.RECORD_COMPONENT;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * The annotated string must be the display name of a {@link br.com.device.model.State State}. {@code null} is valid.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({FIELD, PARAMETER, RECORD_COMPONENT})
+@Constraint(validatedBy = ValidStateValidator.class)
+public @interface ValidState {
+
+    String message() default "State must be one of the following: available, in-use, inactive";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
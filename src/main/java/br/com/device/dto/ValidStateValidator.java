@@ -0,0 +1,13 @@
+package br.com.device.dto;
+
+import br.com.device.model.State;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidStateValidator implements ConstraintValidator<ValidState, String> {
+
+    @Override
+    public boolean isValid(final String value, final ConstraintValidatorContext context) {
+        return value == null || State.fromDisplayName(value) != null;
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.device.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(final String message) {
+        super(message);
+    }
+}
@@ -1,28 +1,20 @@
 package br.com.device.exception;
 
 import br.com.device.dto.ErrorData;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
-import org.springframework.lang.NonNull;
-import org.springframework.validation.ObjectError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
-import org.springframework.web.context.request.WebRequest;
-import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import static java.time.Instant.now;
 import static java.util.List.of;
 import static org.springframework.http.HttpStatus.*;
-import static org.springframework.http.ResponseEntity.badRequest;
 
 @Slf4j
 @RestControllerAdvice
-public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+public class GlobalExceptionHandler {
 
     @ResponseStatus(BAD_REQUEST)
     @ExceptionHandler(DeviceInUseException.class)
@@ -31,6 +23,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ErrorData(now(), BAD_REQUEST.value(), of(exception.getMessage()));
     }
 
+    @ResponseStatus(BAD_REQUEST)
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ErrorData handleBatchTooLargeException(final BatchTooLargeException exception) {
+        log.error("a=handleBatchTooLargeException, e=BatchTooLargeException, m={}", exception.getMessage());
+        return new ErrorData(now(), BAD_REQUEST.value(), of(exception.getMessage()));
+    }
+
+    @ResponseStatus(BAD_REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public ErrorData handleInvalidCursorException(final InvalidCursorException exception) {
+        log.error("a=handleInvalidCursorException, e=InvalidCursorException, m={}", exception.getMessage());
+        return new ErrorData(now(), BAD_REQUEST.value(), of(exception.getMessage()));
+    }
+
+    @ResponseStatus(BAD_REQUEST)
+    @ExceptionHandler(InvalidProjectionException.class)
+    public ErrorData handleInvalidProjectionException(final InvalidProjectionException exception) {
+        log.error("a=handleInvalidProjectionException, e=InvalidProjectionException, m={}", exception.getMessage());
+        return new ErrorData(now(), BAD_REQUEST.value(), of(exception.getMessage()));
+    }
+
     @ResponseStatus(NOT_FOUND)
     @ExceptionHandler(DeviceNotFoundException.class)
     public ErrorData handleDeviceNotFoundException(final DeviceNotFoundException exception) {
@@ -38,6 +51,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ErrorData(now(), NOT_FOUND.value(), of(NOT_FOUND.getReasonPhrase()));
     }
 
+    @ResponseStatus(PRECONDITION_FAILED)
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ErrorData handlePreconditionFailedException(final PreconditionFailedException exception) {
+        log.error("a=handlePreconditionFailedException, e=PreconditionFailedException, m={}", exception.getMessage());
+        return new ErrorData(now(), PRECONDITION_FAILED.value(), of(exception.getMessage()));
+    }
+
     @ResponseStatus(SERVICE_UNAVAILABLE)
     @ExceptionHandler(CallNotPermittedException.class)
     public ErrorData handleCallNotPermittedException(final CallNotPermittedException exception) {
@@ -45,19 +65,10 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ErrorData(now(), SERVICE_UNAVAILABLE.value(), of(SERVICE_UNAVAILABLE.getReasonPhrase()));
     }
 
-    @Override
-    public ResponseEntity<Object> handleMethodArgumentNotValid(
-            final MethodArgumentNotValidException exception,
-            @NonNull final HttpHeaders headers,
-            @NonNull final HttpStatusCode status,
-            @NonNull final WebRequest request
-    ) {
-        final var errors = exception.getBindingResult()
-                .getAllErrors()
-                .stream()
-                .map(ObjectError::getDefaultMessage)
-                .toList();
-        log.error("a=handleMethodArgumentNotValid, e=MethodArgumentNotValidException, m={}", errors);
-        return badRequest().body(new ErrorData(now(), BAD_REQUEST.value(), errors));
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler(BulkheadFullException.class)
+    public ErrorData handleBulkheadFullException(final BulkheadFullException exception) {
+        log.error("a=handleBulkheadFullException, e=BulkheadFullException, m={}", exception.getMessage());
+        return new ErrorData(now(), SERVICE_UNAVAILABLE.value(), of(SERVICE_UNAVAILABLE.getReasonPhrase()));
     }
 }
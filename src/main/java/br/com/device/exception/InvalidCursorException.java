@@ -0,0 +1,8 @@
+package br.com.device.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(final String message) {
+        super(message);
+    }
+}
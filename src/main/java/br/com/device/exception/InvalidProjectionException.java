@@ -0,0 +1,8 @@
+package br.com.device.exception;
+
+public class InvalidProjectionException extends RuntimeException {
+
+    public InvalidProjectionException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.device.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.device.exception;
+
+import br.com.device.dto.ErrorData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static java.time.Instant.now;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.ResponseEntity.badRequest;
+import static reactor.core.publisher.Mono.just;
+
+@Slf4j
+@Profile("reactive")
+@RestControllerAdvice
+public class ReactiveExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+            final WebExchangeBindException exception,
+            @NonNull final HttpHeaders headers,
+            @NonNull final HttpStatusCode status,
+            @NonNull final ServerWebExchange exchange
+    ) {
+        final var errors = exception.getBindingResult()
+                .getAllErrors()
+                .stream()
+                .map(ObjectError::getDefaultMessage)
+                .toList();
+        log.error("a=handleWebExchangeBindException, e=WebExchangeBindException, m={}", errors);
+        return just(badRequest().body(new ErrorData(now(), BAD_REQUEST.value(), errors)));
+    }
+}
@@ -12,6 +12,7 @@ public interface DeviceDataMapper {
 
     Device toEntity(DeviceData source);
 
+    @Mapping(target = "version", defaultValue = "0")
     DeviceData toDTO(Device source);
 
     @Mapping(target = "id", source = "fallback.id")
@@ -19,5 +20,6 @@ public interface DeviceDataMapper {
     @Mapping(target = "name", source = "source.name", defaultExpression = "java(fallback.name())")
     @Mapping(target = "brand", source = "source.brand", defaultExpression = "java(fallback.brand())")
     @Mapping(target = "state", source = "source.state", defaultExpression = "java(fallback.state())")
-    DeviceData toDTO(DeviceData source, DeviceData fallback);
+    @Mapping(target = "version", source = "version")
+    DeviceData toDTO(DeviceData source, DeviceData fallback, Long version);
 }
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
@@ -16,6 +19,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "devices")
+@CompoundIndexes({
+        @CompoundIndex(name = "brand_state_creation_time", def = "{'brand': 1, 'state': 1, 'creationTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "state_creation_time", def = "{'state': 1, 'creationTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "creation_time", def = "{'creationTime': -1, '_id': -1}")
+})
 public class Device {
 
     @MongoId
@@ -29,4 +37,10 @@ public class Device {
 
     @CreatedDate
     private Instant creationTime;
+
+    /**
+     * Incremented by every write. Devices inserted in bulk have no version, which is equivalent to version 0.
+     */
+    @Version
+    private Long version;
 }
@@ -3,6 +3,12 @@ package br.com.device.model;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Map;
+
+import static java.util.Arrays.stream;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
 @Getter
 @RequiredArgsConstructor
 public enum State {
@@ -10,5 +16,28 @@ public enum State {
     IN_USE("in-use"),
     INACTIVE("inactive");
 
+    private static final Map<String, State> BY_DISPLAY_NAME = stream(values()).collect(toUnmodifiableMap(State::getDisplayName, identity()));
+    private static final Map<String, State> BY_NAME = stream(values()).collect(toUnmodifiableMap(State::name, identity()));
+
     private final String displayName;
+
+    /**
+     * Looks up a state by its display name without allocating.
+     *
+     * @param displayName display name of the state, e.g. {@code in-use}.
+     * @return the matching state, or {@code null} if there is none.
+     */
+    public static State fromDisplayName(final String displayName) {
+        return displayName == null ? null : BY_DISPLAY_NAME.get(displayName);
+    }
+
+    /**
+     * Looks up a state by its constant name without allocating.
+     *
+     * @param name constant name of the state, e.g. {@code IN_USE}.
+     * @return the matching state, or {@code null} if there is none.
+     */
+    public static State fromName(final String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
 }
@@ -0,0 +1,67 @@
+package br.com.device.repository;
+
+import br.com.device.model.Device;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.UUID;
+
+import static br.com.device.model.State.IN_USE;
+import static br.com.device.repository.DeviceCursor.ID;
+import static java.util.Optional.ofNullable;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Query building blocks shared by the blocking and reactive repository implementations.
+ */
+final class DeviceCriteria {
+
+    static final String VERSION = "version";
+
+    private DeviceCriteria() {
+    }
+
+    static Criteria matching(final Device filter) {
+        final var criteria = new Criteria();
+        ofNullable(filter.getId()).ifPresent(id -> criteria.and("id").is(id));
+        ofNullable(filter.getName()).ifPresent(name -> criteria.and("name").is(name));
+        ofNullable(filter.getBrand()).ifPresent(brand -> criteria.and("brand").is(brand));
+        ofNullable(filter.getState()).ifPresent(state -> criteria.and("state").is(state));
+        ofNullable(filter.getCreationTime()).ifPresent(creationTime -> criteria.and("creationTime").is(creationTime));
+        return criteria;
+    }
+
+    /**
+     * Locates the devices after the provided position. Null and missing sort key values come first in ascending order
+     * and last in descending order, and they are not matched by range operators, so they are handled explicitly.
+     */
+    static Criteria after(final DeviceCursor position) {
+        if (position.isFirst()) return new Criteria();
+        final var ascending = position.direction().isAscending();
+        final var afterId = ascending ? where(ID).gt(position.id()) : where(ID).lt(position.id());
+        if (ID.equals(position.property())) return afterId;
+        final var property = position.property();
+        final var sameValue = new Criteria().andOperator(where(property).is(position.value()), afterId);
+        if (position.value() == null) {
+            return ascending ? new Criteria().orOperator(where(property).ne(null), sameValue) : sameValue;
+        }
+        return ascending
+                ? new Criteria().orOperator(where(property).gt(position.value()), sameValue)
+                : new Criteria().orOperator(where(property).lt(position.value()), where(property).is(null), sameValue);
+    }
+
+    static Criteria byId(final UUID id, final boolean requireNotInUse, final Long expectedVersion) {
+        final var criteria = where("id").is(id);
+        if (requireNotInUse) criteria.and("state").ne(IN_USE);
+        if (expectedVersion == null) return criteria;
+        return expectedVersion == 0 ? criteria.and(VERSION).in(0L, null) : criteria.and(VERSION).is(expectedVersion);
+    }
+
+    static Update changes(final Device changes) {
+        final var update = new Update();
+        ofNullable(changes.getName()).ifPresent(name -> update.set("name", name));
+        ofNullable(changes.getBrand()).ifPresent(brand -> update.set("brand", brand));
+        ofNullable(changes.getState()).ifPresent(state -> update.set("state", state));
+        return update;
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.device.repository;
+
+import br.com.device.exception.InvalidCursorException;
+import br.com.device.model.Device;
+import br.com.device.model.State;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Base64.getUrlDecoder;
+import static java.util.Base64.getUrlEncoder;
+
+/**
+ * Position in a keyset-paginated device listing. It holds the sort key and identifier of the last returned device,
+ * so the next page is located with a range predicate instead of skipping the previous ones.
+ *
+ * @param property sort key.
+ * @param direction sort direction, also applied to the identifier tie-breaker.
+ * @param value sort key value of the last returned device, null on the first page or if the device has no such value.
+ * @param id identifier of the last returned device, null on the first page.
+ */
+public record DeviceCursor(String property, Direction direction, Object value, UUID id) {
+
+    public static final String ID = "id";
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(ID, "name", "brand", "state", "creationTime");
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates the position of the first page using the first order of the provided sort, or the identifier if unsorted,
+     * which follows the creation order when identifiers are time-ordered.
+     *
+     * @param sort requested sort.
+     * @return first page position.
+     * @throws InvalidCursorException if the sort key is not supported.
+     */
+    public static DeviceCursor first(final Sort sort) throws InvalidCursorException {
+        final var order = sort.stream().findFirst().orElse(Sort.Order.by(ID));
+        if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+            throw new InvalidCursorException("Cursor pagination cannot be sorted by " + order.getProperty());
+        }
+        return new DeviceCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decodes an opaque continuation token.
+     *
+     * @param token encoded cursor.
+     * @return decoded position.
+     * @throws InvalidCursorException if the token is malformed or its sort key is not supported.
+     */
+    public static DeviceCursor decode(final String token) throws InvalidCursorException {
+        try {
+            final var parts = new String(getUrlDecoder().decode(token), UTF_8).split("\\" + SEPARATOR, 4);
+            final var property = parts[1];
+            if (!SORTABLE_PROPERTIES.contains(property)) throw new IllegalArgumentException("Unsupported sort key " + property);
+            final var id = UUID.fromString(parts[2]);
+            final var value = ID.equals(property) ? id : parts.length > 3 ? parseValue(property, parts[3]) : null;
+            return new DeviceCursor(property, Direction.valueOf(parts[0]), value, id);
+        } catch (final RuntimeException exception) {
+            throw new InvalidCursorException("Cursor is invalid");
+        }
+    }
+
+    /**
+     * Creates the position right after the provided device.
+     *
+     * @param device last returned device.
+     * @return next position.
+     */
+    public DeviceCursor after(final Device device) {
+        final var value = switch (this.property) {
+            case ID -> device.getId();
+            case "name" -> device.getName();
+            case "brand" -> device.getBrand();
+            case "state" -> device.getState();
+            case "creationTime" -> device.getCreationTime();
+            default -> throw new IllegalStateException("Unsupported sort key " + this.property);
+        };
+        return new DeviceCursor(this.property, this.direction, value, device.getId());
+    }
+
+    public boolean isFirst() {
+        return this.id == null;
+    }
+
+    public Sort sort() {
+        final var sort = Sort.by(this.direction, this.property);
+        return ID.equals(this.property) ? sort : sort.and(Sort.by(this.direction, ID));
+    }
+
+    /**
+     * Encodes the position as an opaque continuation token. A null sort key value is encoded by leaving it out,
+     * so it is not confused with an empty one.
+     *
+     * @return encoded cursor.
+     */
+    public String encode() {
+        final var position = String.join(SEPARATOR, this.direction.name(), this.property, this.id.toString());
+        final var raw = this.value == null ? position : position + SEPARATOR + this.formatValue();
+        return getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+    }
+
+    private String formatValue() {
+        return switch (this.value) {
+            case State state -> state.name();
+            case UUID _ -> "";
+            case String text -> text;
+            case Instant instant -> instant.toString();
+            default -> throw new IllegalStateException("Unsupported sort key value " + this.value.getClass().getName());
+        };
+    }
+
+    private static Object parseValue(final String property, final String value) {
+        return switch (property) {
+            case "state" -> State.valueOf(value);
+            case "creationTime" -> Instant.parse(value);
+            case "name", "brand" -> value;
+            default -> throw new IllegalArgumentException("Unsupported sort key " + property);
+        };
+    }
+}
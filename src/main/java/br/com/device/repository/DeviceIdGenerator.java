@@ -0,0 +1,12 @@
+package br.com.device.repository;
+
+import java.util.UUID;
+
+/**
+ * Generates the identifiers of new devices. The implementation is selected by the {@code device.id.generator} property.
+ */
+@FunctionalInterface
+public interface DeviceIdGenerator {
+
+    UUID generate();
+}
@@ -0,0 +1,60 @@
+package br.com.device.repository;
+
+import br.com.device.exception.InvalidProjectionException;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static br.com.device.repository.DeviceCursor.ID;
+import static java.util.function.Predicate.not;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+/**
+ * Device fields requested by a client. It is pushed down to the database as a projection, so unrequested fields are
+ * neither read nor transferred, and it limits the serialized fields of the returned devices.
+ *
+ * @param fields requested fields, all fields if empty.
+ */
+public record DeviceProjection(Set<String> fields) {
+
+    public static final DeviceProjection ALL = new DeviceProjection(Set.of());
+
+    private static final Set<String> PROJECTABLE_PROPERTIES = Set.of(ID, "name", "brand", "state", "creationTime");
+
+    /**
+     * Parses a comma separated list of fields.
+     *
+     * @param fields requested fields, all fields if null or blank.
+     * @return requested projection.
+     * @throws InvalidProjectionException if a field is not supported.
+     */
+    public static DeviceProjection parse(final String fields) throws InvalidProjectionException {
+        if (fields == null || fields.isBlank()) return ALL;
+        final var requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(not(String::isEmpty))
+                .collect(toUnmodifiableSet());
+        requested.stream()
+                .filter(not(PROJECTABLE_PROPERTIES::contains))
+                .findFirst()
+                .ifPresent(field -> {
+                    throw new InvalidProjectionException("Devices cannot be projected on " + field);
+                });
+        return new DeviceProjection(requested);
+    }
+
+    public boolean isAll() {
+        return this.fields.isEmpty();
+    }
+
+    /**
+     * Restricts the fields returned by a query to the requested ones plus the ones required by the caller.
+     */
+    Query applyTo(final Query query, final String... required) {
+        if (this.isAll()) return query;
+        this.fields.forEach(query.fields()::include);
+        query.fields().include(required);
+        return query;
+    }
+}
@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.UUID;
 
-public interface DeviceRepository extends MongoRepository<Device, UUID> {
+public interface DeviceRepository extends MongoRepository<Device, UUID>, DeviceRepositoryCustom {
 }
@@ -0,0 +1,122 @@
+package br.com.device.repository;
+
+import br.com.device.model.Device;
+import br.com.device.model.State;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface DeviceRepositoryCustom {
+
+    /**
+     * Finds devices whose non-null fields are equal to the ones in the provided filter.
+     * The filter is translated into an explicit criteria query so it can be served by the declared compound indexes.
+     *
+     * @param filter     device holding the fields that should match.
+     * @param pageable   page request.
+     * @param projection fields that should be read.
+     * @return page of matching devices.
+     */
+    Page<Device> findAllMatching(Device filter, Pageable pageable, DeviceProjection projection);
+
+    /**
+     * Finds devices matching the provided filter without counting the total, fetching one extra device to detect the next page.
+     *
+     * @param filter     device holding the fields that should match.
+     * @param pageable   page request.
+     * @param projection fields that should be read.
+     * @return slice of matching devices.
+     */
+    Slice<Device> findSliceMatching(Device filter, Pageable pageable, DeviceProjection projection);
+
+    /**
+     * Counts devices whose non-null fields are equal to the ones in the provided filter.
+     *
+     * @param filter device holding the fields that should match.
+     * @return number of matching devices.
+     */
+    long countMatching(Device filter);
+
+    /**
+     * Estimates the number of devices from the collection metadata, without scanning documents or indexes.
+     *
+     * @return estimated number of devices.
+     */
+    long estimatedCount();
+
+    /**
+     * Finds devices matching the provided filter located after the provided position.
+     * The position is translated into a range predicate on the sort key and identifier, so every page costs the same.
+     *
+     * @param filter     device holding the fields that should match.
+     * @param position   position of the last returned device.
+     * @param limit      maximum number of devices.
+     * @param projection fields that should be read, the sort key and identifier are always read.
+     * @return matching devices ordered by the position sort key and identifier.
+     */
+    List<Device> findAllAfter(Device filter, DeviceCursor position, int limit, DeviceProjection projection);
+
+    /**
+     * Streams devices matching the provided filter from a database cursor, fetching them in batches of bounded size.
+     * The returned stream holds the cursor open and must be closed.
+     *
+     * @param filter    device holding the fields that should match.
+     * @param batchSize number of devices fetched per cursor round trip.
+     * @return stream of matching devices.
+     */
+    Stream<Device> streamMatching(Device filter, int batchSize);
+
+    /**
+     * Inserts devices with a single unordered bulk write, so a failing device does not prevent the others from being inserted.
+     * Identifiers and creation times are assigned to the provided devices by the entity callbacks.
+     *
+     * @param devices devices that should be inserted.
+     * @return client-facing error messages of the devices that could not be inserted, keyed by their position in the provided list.
+     */
+    Map<Integer, String> insertUnordered(List<Device> devices);
+
+    /**
+     * Changes the state and increments the version of many devices with a single multi-document update.
+     *
+     * @param ids    identifiers of the devices that should be changed, ignored if null.
+     * @param filter device holding the fields that should match, ignored if null.
+     * @param state  new state.
+     * @return matched and modified counts.
+     */
+    UpdateResult updateState(List<UUID> ids, Device filter, State state);
+
+    /**
+     * Atomically replaces the non-null fields of a device and increments its version in a single round trip.
+     *
+     * @param id              device identifier.
+     * @param changes         fields that should be replaced, null fields are left untouched.
+     * @param requireNotInUse whether the device must not be in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @return device as it was before the update, or empty if no device matched the identifier, state and version conditions.
+     */
+    Optional<Device> updateFields(UUID id, Device changes, boolean requireNotInUse, Long expectedVersion);
+
+    /**
+     * Atomically deletes a device unless it is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     *
+     * @param id              device identifier.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @return deleted device, or empty if no device matched the identifier, state and version conditions.
+     */
+    Optional<Device> deleteIfNotInUse(UUID id, Long expectedVersion);
+
+    /**
+     * Counts devices grouped by brand and state with a single aggregation, served by the brand and state index.
+     * Devices without a brand or with an unknown state are left out with a warning.
+     *
+     * @return number of devices per brand and state.
+     */
+    Map<String, Map<State, Long>> countByBrandAndState();
+}
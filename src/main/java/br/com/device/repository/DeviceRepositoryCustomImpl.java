@@ -0,0 +1,152 @@
+package br.com.device.repository;
+
+import br.com.device.model.Device;
+import br.com.device.model.State;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static br.com.device.repository.DeviceCriteria.VERSION;
+import static br.com.device.repository.DeviceCursor.ID;
+import static br.com.device.repository.DeviceCriteria.after;
+import static br.com.device.repository.DeviceCriteria.byId;
+import static br.com.device.repository.DeviceCriteria.changes;
+import static br.com.device.repository.DeviceCriteria.matching;
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toMap;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.data.support.PageableExecutionUtils.getPage;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DeviceRepositoryCustomImpl implements DeviceRepositoryCustom {
+
+    static final String DUPLICATE_DEVICE_MESSAGE = "Device already exists";
+    static final String FAILED_INSERT_MESSAGE = "Device could not be stored";
+
+    private static final int DUPLICATE_KEY_CODE = 11000;
+
+    private final MongoOperations operations;
+
+    @Override
+    public Page<Device> findAllMatching(final Device filter, final Pageable pageable, final DeviceProjection projection) {
+        final var query = projection.applyTo(query(matching(filter)).with(pageable));
+        final var devices = this.operations.find(query, Device.class);
+        return getPage(devices, pageable, () -> this.operations.count(Query.of(query).limit(-1).skip(-1), Device.class));
+    }
+
+    @Override
+    public Slice<Device> findSliceMatching(final Device filter, final Pageable pageable, final DeviceProjection projection) {
+        final var query = projection.applyTo(query(matching(filter)).with(pageable));
+        if (pageable.isPaged()) query.limit(pageable.getPageSize() + 1);
+        final var devices = this.operations.find(query, Device.class);
+        final var hasNext = pageable.isPaged() && devices.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? devices.subList(0, pageable.getPageSize()) : devices, pageable, hasNext);
+    }
+
+    @Override
+    public long countMatching(final Device filter) {
+        return this.operations.count(query(matching(filter)), Device.class);
+    }
+
+    @Override
+    public long estimatedCount() {
+        return this.operations.estimatedCount(Device.class);
+    }
+
+    @Override
+    public List<Device> findAllAfter(final Device filter, final DeviceCursor position, final int limit, final DeviceProjection projection) {
+        final var query = projection.applyTo(query(new Criteria().andOperator(matching(filter), after(position)))
+                .with(position.sort())
+                .limit(limit), ID, position.property());
+        return this.operations.find(query, Device.class);
+    }
+
+    @Override
+    public Stream<Device> streamMatching(final Device filter, final int batchSize) {
+        return this.operations.stream(query(matching(filter)).cursorBatchSize(batchSize), Device.class);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(final List<Device> devices) {
+        try {
+            this.operations.bulkOps(UNORDERED, Device.class).insert(devices).execute();
+            return Map.of();
+        } catch (final BulkOperationException exception) {
+            return exception.getErrors()
+                    .stream()
+                    .collect(toMap(BulkWriteError::getIndex, DeviceRepositoryCustomImpl::clientMessage));
+        }
+    }
+
+    /**
+     * Translates a write error into a stable message, as the driver message exposes index names and key values.
+     */
+    private static String clientMessage(final BulkWriteError error) {
+        log.warn("a=insertUnordered, i={}, c={}, m={}", error.getIndex(), error.getCode(), error.getMessage());
+        return error.getCode() == DUPLICATE_KEY_CODE ? DUPLICATE_DEVICE_MESSAGE : FAILED_INSERT_MESSAGE;
+    }
+
+    @Override
+    public UpdateResult updateState(final List<UUID> ids, final Device filter, final State state) {
+        final var criteria = ofNullable(filter).map(DeviceCriteria::matching).orElseGet(Criteria::new);
+        ofNullable(ids).ifPresent(it -> criteria.and("id").in(it));
+        return this.operations.updateMulti(query(criteria), new Update().set("state", state).inc(VERSION, 1), Device.class);
+    }
+
+    @Override
+    public Optional<Device> updateFields(final UUID id, final Device changes, final boolean requireNotInUse, final Long expectedVersion) {
+        final var query = query(byId(id, requireNotInUse, expectedVersion));
+        final var update = changes(changes);
+        if (update.getUpdateObject().isEmpty()) {
+            return ofNullable(this.operations.findOne(query, Device.class));
+        }
+        return ofNullable(this.operations.findAndModify(query, update.inc(VERSION, 1), Device.class));
+    }
+
+    @Override
+    public Optional<Device> deleteIfNotInUse(final UUID id, final Long expectedVersion) {
+        return ofNullable(this.operations.findAndRemove(query(byId(id, true, expectedVersion)), Device.class));
+    }
+
+    @Override
+    public Map<String, Map<State, Long>> countByBrandAndState() {
+        final var aggregation = newAggregation(Device.class, group("brand", "state").count().as("count"));
+        final var counts = new HashMap<String, Map<State, Long>>();
+        for (final var result : this.operations.aggregate(aggregation, Document.class)) {
+            final var group = result.get("_id", Document.class);
+            final var brand = group.get("brand") instanceof String name ? name : null;
+            final var state = group.get("state") instanceof String stored ? State.fromName(stored) : null;
+            final var count = result.get("count", Number.class).longValue();
+            if (brand == null || state == null) {
+                log.warn("a=countByBrandAndState, b={}, s={}, c={}, m=Devices without a known brand and state are not counted",
+                        group.get("brand"), group.get("state"), count);
+                continue;
+            }
+            counts.computeIfAbsent(brand, _ -> new EnumMap<>(State.class)).put(state, count);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.device.repository;
+
+import br.com.device.model.Device;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import java.util.UUID;
+
+public interface ReactiveDeviceRepository extends ReactiveMongoRepository<Device, UUID>, ReactiveDeviceRepositoryCustom {
+}
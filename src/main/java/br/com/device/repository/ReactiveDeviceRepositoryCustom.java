@@ -0,0 +1,104 @@
+package br.com.device.repository;
+
+import br.com.device.model.Device;
+import br.com.device.model.State;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of {@link DeviceRepositoryCustom}. Queries are built the same way, so they are served by the same indexes.
+ */
+public interface ReactiveDeviceRepositoryCustom {
+
+    /**
+     * Finds devices whose non-null fields are equal to the ones in the provided filter.
+     *
+     * @param filter     device holding the fields that should match.
+     * @param pageable   page request.
+     * @param projection device fields that should be read.
+     * @return matching devices of the requested page.
+     */
+    Flux<Device> findAllMatching(Device filter, Pageable pageable, DeviceProjection projection);
+
+    /**
+     * Finds devices matching the provided filter without counting the total, fetching one extra device to detect the next page.
+     *
+     * @param filter     device holding the fields that should match.
+     * @param pageable   page request.
+     * @param projection device fields that should be read.
+     * @return slice of matching devices.
+     */
+    Mono<Slice<Device>> findSliceMatching(Device filter, Pageable pageable, DeviceProjection projection);
+
+    /**
+     * Counts devices whose non-null fields are equal to the ones in the provided filter.
+     *
+     * @param filter device holding the fields that should match.
+     * @return number of matching devices.
+     */
+    Mono<Long> countMatching(Device filter);
+
+    /**
+     * Estimates the number of devices from the collection metadata, without scanning it.
+     *
+     * @return estimated number of devices.
+     */
+    Mono<Long> estimatedCount();
+
+    /**
+     * Finds devices matching the provided filter located after the provided position.
+     *
+     * @param filter     device holding the fields that should match.
+     * @param position   position of the last returned device.
+     * @param limit      maximum number of devices.
+     * @param projection device fields that should be read, the identifier and the sort key are always read.
+     * @return matching devices ordered by the position sort key and identifier.
+     */
+    Flux<Device> findAllAfter(Device filter, DeviceCursor position, int limit, DeviceProjection projection);
+
+    /**
+     * Streams devices matching the provided filter from a database cursor. Batches are requested as the subscriber
+     * demands them, so a slow subscriber slows down the cursor instead of buffering devices.
+     *
+     * @param filter    device holding the fields that should match.
+     * @param batchSize number of devices fetched per cursor round trip.
+     * @return matching devices.
+     */
+    Flux<Device> streamMatching(Device filter, int batchSize);
+
+    /**
+     * Changes the state of many devices with a single multi-document update.
+     *
+     * @param ids    identifiers of the devices that should be changed, ignored if null.
+     * @param filter device holding the fields that should match, ignored if null.
+     * @param state  new state.
+     * @return matched and modified counts.
+     */
+    Mono<UpdateResult> updateState(List<UUID> ids, Device filter, State state);
+
+    /**
+     * Atomically replaces the non-null fields of a device in a single round trip.
+     *
+     * @param id              device identifier.
+     * @param changes         fields that should be replaced, null fields are left untouched.
+     * @param requireNotInUse whether the device must not be in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @return device as it was before the update, or empty if no device matched the identifier, state and version condition.
+     */
+    Mono<Device> updateFields(UUID id, Device changes, boolean requireNotInUse, Long expectedVersion);
+
+    /**
+     * Atomically deletes a device unless it is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     *
+     * @param id              device identifier.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @return deleted device, or empty if no device matched the identifier, state and version condition.
+     */
+    Mono<Device> deleteIfNotInUse(UUID id, Long expectedVersion);
+}
@@ -0,0 +1,94 @@
+package br.com.device.repository;
+
+import br.com.device.model.Device;
+import br.com.device.model.State;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static br.com.device.repository.DeviceCriteria.VERSION;
+import static br.com.device.repository.DeviceCursor.ID;
+import static br.com.device.repository.DeviceCriteria.after;
+import static br.com.device.repository.DeviceCriteria.byId;
+import static br.com.device.repository.DeviceCriteria.changes;
+import static br.com.device.repository.DeviceCriteria.matching;
+import static java.util.Optional.ofNullable;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+public class ReactiveDeviceRepositoryCustomImpl implements ReactiveDeviceRepositoryCustom {
+
+    private final ReactiveMongoOperations operations;
+
+    @Override
+    public Flux<Device> findAllMatching(final Device filter, final Pageable pageable, final DeviceProjection projection) {
+        return this.operations.find(projection.applyTo(query(matching(filter)).with(pageable)), Device.class);
+    }
+
+    @Override
+    public Mono<Slice<Device>> findSliceMatching(final Device filter, final Pageable pageable, final DeviceProjection projection) {
+        final var query = projection.applyTo(query(matching(filter)).with(pageable));
+        if (pageable.isPaged()) query.limit(pageable.getPageSize() + 1);
+        return this.operations.find(query, Device.class)
+                .collectList()
+                .<Slice<Device>>map(devices -> {
+                    final var hasNext = pageable.isPaged() && devices.size() > pageable.getPageSize();
+                    return new SliceImpl<>(hasNext ? devices.subList(0, pageable.getPageSize()) : devices, pageable, hasNext);
+                });
+    }
+
+    @Override
+    public Mono<Long> countMatching(final Device filter) {
+        return this.operations.count(query(matching(filter)), Device.class);
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return this.operations.estimatedCount(Device.class);
+    }
+
+    @Override
+    public Flux<Device> findAllAfter(final Device filter, final DeviceCursor position, final int limit, final DeviceProjection projection) {
+        final var query = projection.applyTo(query(new Criteria().andOperator(matching(filter), after(position)))
+                .with(position.sort())
+                .limit(limit), ID, position.property());
+        return this.operations.find(query, Device.class);
+    }
+
+    @Override
+    public Flux<Device> streamMatching(final Device filter, final int batchSize) {
+        return this.operations.find(query(matching(filter)).cursorBatchSize(batchSize), Device.class);
+    }
+
+    @Override
+    public Mono<UpdateResult> updateState(final List<UUID> ids, final Device filter, final State state) {
+        final var criteria = ofNullable(filter).map(DeviceCriteria::matching).orElseGet(Criteria::new);
+        ofNullable(ids).ifPresent(it -> criteria.and("id").in(it));
+        return this.operations.updateMulti(query(criteria), new Update().set("state", state).inc(VERSION, 1), Device.class);
+    }
+
+    @Override
+    public Mono<Device> updateFields(final UUID id, final Device changes, final boolean requireNotInUse, final Long expectedVersion) {
+        final var query = query(byId(id, requireNotInUse, expectedVersion));
+        final var update = changes(changes);
+        if (update.getUpdateObject().isEmpty()) {
+            return this.operations.findOne(query, Device.class);
+        }
+        return this.operations.findAndModify(query, update.inc(VERSION, 1), Device.class);
+    }
+
+    @Override
+    public Mono<Device> deleteIfNotInUse(final UUID id, final Long expectedVersion) {
+        return this.operations.findAndRemove(query(byId(id, true, expectedVersion)), Device.class);
+    }
+}
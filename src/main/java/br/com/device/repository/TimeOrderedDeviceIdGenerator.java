@@ -0,0 +1,38 @@
+package br.com.device.repository;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.ThreadLocalRandom.current;
+
+/**
+ * Generates version 7 UUIDs, whose most significant bits hold the Unix time in milliseconds, so new devices are appended
+ * to the right edge of the {@code _id} index instead of landing at random positions.
+ * <p>
+ * The 12 bits after the version hold a counter that starts at a random value every millisecond and is incremented for
+ * identifiers generated within the same millisecond. The timestamp and counter are advanced together with a single
+ * compare-and-set, so identifiers are strictly increasing across threads without locking. When the counter overflows,
+ * or the clock goes backwards, the timestamp is carried forward instead.
+ */
+public class TimeOrderedDeviceIdGenerator implements DeviceIdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public UUID generate() {
+        final var random = current();
+        final var next = this.last.updateAndGet(previous -> {
+            final var start = currentTimeMillis() << COUNTER_BITS | random.nextInt(1 << (COUNTER_BITS - 1));
+            return start > previous ? start : previous + 1;
+        });
+        final var timestamp = next >>> COUNTER_BITS;
+        final var counter = next & ((1L << COUNTER_BITS) - 1);
+        return new UUID(timestamp << 16 | VERSION | counter, VARIANT | (random.nextLong() & RANDOM_MASK));
+    }
+}
@@ -0,0 +1,360 @@
+package br.com.device.service;
+
+import br.com.device.dto.BatchItemData;
+import br.com.device.dto.DeviceData;
+import br.com.device.dto.DeviceData.BasicInfo;
+import br.com.device.dto.DeviceLookupResultData;
+import br.com.device.dto.ImportRejectionData;
+import br.com.device.dto.ImportSummaryData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.dto.StateChangeResultData;
+import br.com.device.exception.BatchTooLargeException;
+import br.com.device.mapper.DeviceDataMapper;
+import br.com.device.mapper.StateMapper;
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static br.com.device.config.CacheConfig.DEVICES_CACHE;
+import static br.com.device.config.MongoConfig.MONGO_BULKHEAD;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+
+@Slf4j
+@Service
+public class DeviceBatchService {
+
+    private final StateMapper stateMapper;
+    private final DeviceDataMapper mapper;
+    private final DeviceRepository repository;
+    private final DeviceStatsService stats;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Cache devices;
+    private final int maxSize;
+    private final int lookupMaxSize;
+    private final int chunkSize;
+    private final int exportBatchSize;
+    private final int importMaxInFlight;
+    private final int importMaxRejections;
+    private final Counter importedDevices;
+    private final Counter rejectedDevices;
+    private final AtomicInteger importChunksInFlight = new AtomicInteger();
+
+    public DeviceBatchService(final StateMapper stateMapper,
+                              final DeviceDataMapper mapper,
+                              final DeviceRepository repository,
+                              final DeviceStatsService stats,
+                              final Validator validator,
+                              final ObjectMapper objectMapper,
+                              final MeterRegistry meterRegistry,
+                              final CacheManager cacheManager,
+                              @Value("${device.batch.max-size}") final int maxSize,
+                              @Value("${device.lookup.max-size}") final int lookupMaxSize,
+                              @Value("${device.batch.chunk-size}") final int chunkSize,
+                              @Value("${device.export.batch-size}") final int exportBatchSize,
+                              @Value("${device.import.max-in-flight}") final int importMaxInFlight,
+                              @Value("${device.import.max-rejections}") final int importMaxRejections) {
+        this.stateMapper = stateMapper;
+        this.mapper = mapper;
+        this.repository = repository;
+        this.stats = stats;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.devices = requireNonNull(cacheManager.getCache(DEVICES_CACHE));
+        this.maxSize = maxSize;
+        this.lookupMaxSize = lookupMaxSize;
+        this.chunkSize = chunkSize;
+        this.exportBatchSize = exportBatchSize;
+        this.importMaxInFlight = importMaxInFlight;
+        this.importMaxRejections = importMaxRejections;
+        this.importedDevices = meterRegistry.counter("device.import.devices", "result", "inserted");
+        this.rejectedDevices = meterRegistry.counter("device.import.devices", "result", "rejected");
+        meterRegistry.gauge("device.import.chunks.in-flight", this.importChunksInFlight);
+    }
+
+    /**
+     * Creates many devices at once. Devices are validated individually and the valid ones are inserted
+     * in unordered bulk writes of bounded size.
+     *
+     * @param devices devices that should be created.
+     * @return one result per provided device, in the same order, holding either the created device or the rejection reasons.
+     * @throws BatchTooLargeException if more devices than allowed are provided.
+     */
+    @CircuitBreaker(name = "save-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public List<BatchItemData> saveAll(final List<DeviceData> devices) throws BatchTooLargeException {
+        if (devices.size() > this.maxSize) {
+            throw new BatchTooLargeException("Batch must not have more than " + this.maxSize + " devices");
+        }
+        final var results = new BatchItemData[devices.size()];
+        final var indexes = new ArrayList<Integer>(devices.size());
+        final var entities = new ArrayList<Device>(devices.size());
+        for (var index = 0; index < devices.size(); index++) {
+            final var errors = this.validate(devices.get(index));
+            if (errors.isEmpty()) {
+                indexes.add(index);
+                entities.add(this.mapper.toEntity(devices.get(index)));
+            } else {
+                results[index] = new BatchItemData(index, null, errors);
+            }
+        }
+        log.info("a=saveAll, s={}, v={}", devices.size(), entities.size());
+        for (var start = 0; start < entities.size(); start += this.chunkSize) {
+            final var end = min(start + this.chunkSize, entities.size());
+            final var chunk = entities.subList(start, end);
+            final var failures = this.repository.insertUnordered(chunk);
+            for (var position = 0; position < chunk.size(); position++) {
+                final var index = indexes.get(start + position);
+                final var failure = failures.get(position);
+                if (failure == null) {
+                    final var created = this.mapper.toDTO(chunk.get(position));
+                    this.stats.created(created);
+                    results[index] = new BatchItemData(index, created, List.of());
+                } else {
+                    results[index] = new BatchItemData(index, null, List.of(failure));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reads many devices at once. Cached devices are served from the cache and the remaining ones are read
+     * with a single query, then cached.
+     *
+     * @param ids identifiers of the devices that should be read, duplicates are read once.
+     * @return found devices and identifiers of the missing ones, both in the order they were provided.
+     * @throws BatchTooLargeException if more identifiers than allowed are provided.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public DeviceLookupResultData lookup(final List<UUID> ids) throws BatchTooLargeException {
+        if (ids.size() > this.lookupMaxSize) {
+            throw new BatchTooLargeException("Lookup must not have more than " + this.lookupMaxSize + " devices");
+        }
+        final var requested = new LinkedHashSet<>(ids);
+        final var found = new HashMap<UUID, DeviceData>(requested.size());
+        final var misses = new ArrayList<UUID>();
+        for (final var id : requested) {
+            final var cached = this.devices.get(id, DeviceData.class);
+            if (cached != null) found.put(id, cached);
+            else misses.add(id);
+        }
+        if (!misses.isEmpty()) {
+            for (final var entity : this.repository.findAllById(misses)) {
+                final var device = this.mapper.toDTO(entity);
+                this.devices.putIfAbsent(device.id(), device);
+                found.put(device.id(), device);
+            }
+        }
+        final var result = new ArrayList<DeviceData>(found.size());
+        final var missing = new ArrayList<UUID>();
+        for (final var id : requested) {
+            final var device = found.get(id);
+            if (device != null) result.add(device);
+            else missing.add(id);
+        }
+        log.info("a=lookup, s={}, h={}, m={}", requested.size(), requested.size() - misses.size(), missing.size());
+        return new DeviceLookupResultData(result, missing);
+    }
+
+    /**
+     * Changes the state of many devices at once, selected by identifiers, by filter or by both.
+     * As for single updates, the state can be changed regardless of the current one.
+     *
+     * @param change devices selection and new state.
+     * @return matched and modified counts.
+     * @throws BatchTooLargeException if more identifiers than allowed are provided.
+     */
+    @CircuitBreaker(name = "update-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public StateChangeResultData updateState(final StateChangeData change) throws BatchTooLargeException {
+        if (change.ids() != null && change.ids().size() > this.maxSize) {
+            throw new BatchTooLargeException("Batch must not have more than " + this.maxSize + " devices");
+        }
+        final var filter = change.filter() == null ? null : this.mapper.toEntity(change.filter());
+        final var state = this.stateMapper.fromString(change.state());
+        final var result = this.repository.updateState(change.ids(), filter, state);
+        log.info("a=updateState, f={}, s={}, m={}, u={}", filter, state, result.getMatchedCount(), result.getModifiedCount());
+        if (result.getModifiedCount() > 0) {
+            this.evict(change.ids());
+            this.stats.reconcile();
+        }
+        return new StateChangeResultData(result.getMatchedCount(), result.getModifiedCount());
+    }
+
+    /**
+     * Exports devices as a lazily mapped stream backed by a database cursor, so memory usage does not depend on
+     * the number of devices. The returned stream must be closed.
+     *
+     * @param filter device fields that should match.
+     * @return stream of devices.
+     */
+    @CircuitBreaker(name = "read-all-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public Stream<DeviceData> export(final DeviceData filter) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=export, f={}", entityFilter);
+        return this.repository.streamMatching(entityFilter, this.exportBatchSize)
+                .map(this.mapper::toDTO);
+    }
+
+    /**
+     * Imports devices from an NDJSON stream without buffering it. Lines are parsed, validated and mapped one at a time,
+     * and valid devices are inserted in unordered bulk writes of bounded size. Reading stops while the maximum number
+     * of chunks is in flight, so a slow database slows down the client instead of filling the memory.
+     *
+     * @param input NDJSON stream, one device per line.
+     * @return number of inserted and rejected devices, and the first rejection reasons.
+     * @throws IOException if the stream cannot be read.
+     */
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public ImportSummaryData importAll(final InputStream input) throws IOException {
+        final var progress = new ImportProgress(this.importMaxRejections);
+        final var permits = new Semaphore(this.importMaxInFlight);
+        try (final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+             final var reader = new BufferedReader(new InputStreamReader(input, UTF_8))) {
+            var chunk = new ArrayList<Device>(this.chunkSize);
+            var lines = new ArrayList<Long>(this.chunkSize);
+            var lineNumber = 0L;
+            for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                final var errors = this.parse(line, chunk);
+                if (!errors.isEmpty()) {
+                    progress.reject(lineNumber, errors);
+                    this.rejectedDevices.increment();
+                    continue;
+                }
+                lines.add(lineNumber);
+                if (chunk.size() == this.chunkSize) {
+                    this.submit(executor, permits, chunk, lines, progress);
+                    chunk = new ArrayList<>(this.chunkSize);
+                    lines = new ArrayList<>(this.chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) this.submit(executor, permits, chunk, lines, progress);
+        }
+        log.info("a=importAll, i={}, r={}", progress.inserted, progress.rejected);
+        return progress.summary();
+    }
+
+    private List<String> parse(final String line, final List<Device> chunk) {
+        final DeviceData device;
+        try {
+            device = this.objectMapper.readValue(line, DeviceData.class);
+        } catch (final JsonProcessingException exception) {
+            return List.of("Device is malformed");
+        }
+        final var errors = this.validate(device);
+        if (errors.isEmpty()) chunk.add(this.mapper.toEntity(device));
+        return errors;
+    }
+
+    private void submit(final ExecutorService executor,
+                        final Semaphore permits,
+                        final List<Device> chunk,
+                        final List<Long> lines,
+                        final ImportProgress progress) {
+        permits.acquireUninterruptibly();
+        this.importChunksInFlight.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                final var failures = this.repository.insertUnordered(chunk);
+                failures.forEach((position, failure) -> progress.reject(lines.get(position), List.of(failure)));
+                for (var position = 0; position < chunk.size(); position++) {
+                    if (!failures.containsKey(position)) this.stats.created(this.mapper.toDTO(chunk.get(position)));
+                }
+                progress.insert(chunk.size() - failures.size());
+                this.importedDevices.increment(chunk.size() - failures.size());
+                this.rejectedDevices.increment(failures.size());
+            } catch (final RuntimeException exception) {
+                log.error("a=importAll, e={}, m={}", exception.getClass().getSimpleName(), exception.getMessage());
+                lines.forEach(line -> progress.reject(line, List.of("Device could not be inserted")));
+                this.rejectedDevices.increment(chunk.size());
+            } finally {
+                this.importChunksInFlight.decrementAndGet();
+                permits.release();
+            }
+        });
+    }
+
+    private void evict(final List<UUID> ids) {
+        // A filter-based change does not tell which devices changed
+        if (ids == null || ids.isEmpty()) this.devices.clear();
+        else ids.forEach(this.devices::evict);
+    }
+
+    private List<String> validate(final DeviceData device) {
+        if (device == null) return List.of("Device is required");
+        return this.validator.validate(device, BasicInfo.class)
+                .stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private static final class ImportProgress {
+
+        private final int maxRejections;
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final Queue<ImportRejectionData> rejections = new ConcurrentLinkedQueue<>();
+
+        private ImportProgress(final int maxRejections) {
+            this.maxRejections = maxRejections;
+        }
+
+        private void insert(final long count) {
+            this.inserted.addAndGet(count);
+        }
+
+        private void reject(final long line, final List<String> errors) {
+            if (this.rejected.incrementAndGet() <= this.maxRejections) {
+                this.rejections.add(new ImportRejectionData(line, errors));
+            }
+        }
+
+        private ImportSummaryData summary() {
+            final var sortedRejections = this.rejections.stream()
+                    .sorted(Comparator.comparingLong(ImportRejectionData::line))
+                    .toList();
+            return new ImportSummaryData(this.inserted.get(), this.rejected.get(), sortedRejections);
+        }
+    }
+}
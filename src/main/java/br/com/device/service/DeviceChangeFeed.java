@@ -0,0 +1,112 @@
+package br.com.device.service;
+
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.function.ThrowingConsumer;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.equals;
+
+/**
+ * Fans device changes out to subscribers. Each subscriber is served by its own virtual thread from a bounded buffer,
+ * so a slow subscriber never delays the change stream or the other subscribers. A subscriber whose buffer fills up
+ * is dropped and expected to reconnect.
+ */
+@Slf4j
+@Service
+public class DeviceChangeFeed {
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+
+    public DeviceChangeFeed(@Value("${device.changes.buffer-size}") final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Subscribes to the changes of the devices matching the provided filter. Deletions carry no device,
+     * so they are delivered regardless of the filter.
+     *
+     * @param filter  device fields that should match, null fields match anything.
+     * @param handler receives the matching changes, in order.
+     * @param onClose called when the subscription is dropped because the handler failed or fell behind.
+     * @return subscription, which must be cancelled when the subscriber goes away.
+     */
+    public Subscription subscribe(final DeviceData filter, final ThrowingConsumer<DeviceChangeData> handler, final Runnable onClose) {
+        final var subscription = new Subscription(filter, handler, onClose);
+        subscription.worker = Thread.ofVirtual().name("device-change-subscriber").start(subscription::deliver);
+        this.subscriptions.add(subscription);
+        log.info("a=subscribe, f={}, s={}", filter, this.subscriptions.size());
+        return subscription;
+    }
+
+    public void publish(final DeviceChangeData change) {
+        this.subscriptions.forEach(subscription -> subscription.offer(change));
+    }
+
+    public final class Subscription {
+
+        private final DeviceData filter;
+        private final ThrowingConsumer<DeviceChangeData> handler;
+        private final Runnable onClose;
+        private final BlockingQueue<DeviceChangeData> pending;
+        private volatile Thread worker;
+
+        private Subscription(final DeviceData filter, final ThrowingConsumer<DeviceChangeData> handler, final Runnable onClose) {
+            this.filter = filter;
+            this.handler = handler;
+            this.onClose = onClose;
+            this.pending = new ArrayBlockingQueue<>(DeviceChangeFeed.this.bufferSize);
+        }
+
+        public void cancel() {
+            this.remove();
+        }
+
+        private void offer(final DeviceChangeData change) {
+            if (!this.matches(change.device())) return;
+            if (!this.pending.offer(change)) {
+                log.warn("a=offer, f={}, m=Subscriber fell behind", this.filter);
+                this.close();
+            }
+        }
+
+        private void deliver() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    this.handler.acceptWithException(this.pending.take());
+                }
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception exception) {
+                log.warn("a=deliver, f={}, m={}", this.filter, exception.getMessage());
+                this.close();
+            }
+        }
+
+        private void close() {
+            if (this.remove()) this.onClose.run();
+        }
+
+        private boolean remove() {
+            if (!DeviceChangeFeed.this.subscriptions.remove(this)) return false;
+            this.worker.interrupt();
+            log.info("a=cancel, f={}, s={}", this.filter, DeviceChangeFeed.this.subscriptions.size());
+            return true;
+        }
+
+        private boolean matches(final DeviceData device) {
+            return this.filter == null || device == null
+                    || (this.filter.name() == null || equals(this.filter.name(), device.name()))
+                    && (this.filter.brand() == null || equals(this.filter.brand(), device.brand()))
+                    && (this.filter.state() == null || equals(this.filter.state(), device.state()));
+        }
+    }
+}
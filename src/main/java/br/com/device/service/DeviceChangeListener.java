@@ -0,0 +1,197 @@
+package br.com.device.service;
+
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import br.com.device.mapper.DeviceDataMapper;
+import br.com.device.model.Device;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static br.com.device.config.CacheConfig.DEVICES_CACHE;
+import static com.mongodb.client.model.changestream.FullDocument.UPDATE_LOOKUP;
+import static com.mongodb.client.model.changestream.OperationType.INVALIDATE;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.data.mongodb.core.query.Update.update;
+
+/**
+ * Tails the change stream of the devices collection. Every change evicts the device from the local cache, so writes
+ * made by other replicas are not served stale, and is published to the {@link DeviceChangeFeed}.
+ * <p>
+ * The resume token of the last handled change is persisted periodically, so a restarted listener picks up where it
+ * stopped. If the token is no longer in the oplog, the listener starts from the current time.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "device.changes.enabled", havingValue = "true")
+public class DeviceChangeListener implements SmartLifecycle {
+
+    static final String TOKENS_COLLECTION = "device_change_tokens";
+
+    private static final Set<Integer> HISTORY_LOST_CODES = Set.of(280, 286);
+    private static final String TOKEN_DATA = "_data";
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final MongoOperations operations;
+    private final DeviceDataMapper mapper;
+    private final DeviceChangeFeed feed;
+    private final Cache devices;
+    private final String listenerName;
+    private final Duration checkpointInterval;
+    private volatile boolean running;
+    private volatile Thread worker;
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private volatile BsonDocument token;
+    private BsonDocument checkpointedToken;
+    private long lastCheckpoint;
+
+    public DeviceChangeListener(final MongoOperations operations,
+                                final DeviceDataMapper mapper,
+                                final DeviceChangeFeed feed,
+                                final CacheManager cacheManager,
+                                @Value("${spring.application.name}") final String listenerName,
+                                @Value("${device.changes.checkpoint-interval}") final Duration checkpointInterval) {
+        this.operations = operations;
+        this.mapper = mapper;
+        this.feed = feed;
+        this.devices = requireNonNull(cacheManager.getCache(DEVICES_CACHE));
+        this.listenerName = listenerName;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Opens the change stream before returning, so changes made once the application is started are not missed.
+     */
+    @Override
+    public void start() {
+        this.token = this.loadToken();
+        this.checkpointedToken = this.token;
+        this.cursor = this.open();
+        this.running = true;
+        this.worker = Thread.ofVirtual().name("device-change-listener").start(this::listen);
+        log.info("a=start, t={}", this.token);
+    }
+
+    @Override
+    public void stop() {
+        this.running = false;
+        try {
+            this.worker.join();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("a=stop, t={}", this.token);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    private void listen() {
+        while (this.running) {
+            try (final var changes = this.cursor != null ? this.cursor : this.open()) {
+                this.cursor = null;
+                while (this.running) {
+                    final var change = changes.tryNext();
+                    if (change != null) {
+                        if (change.getOperationType() == INVALIDATE) {
+                            this.token = null;
+                            break;
+                        }
+                        this.handle(change);
+                    }
+                    this.token = change != null ? change.getResumeToken() : changes.getResumeToken();
+                    this.checkpoint(false);
+                }
+            } catch (final RuntimeException exception) {
+                if (exception instanceof MongoCommandException command && HISTORY_LOST_CODES.contains(command.getErrorCode())) {
+                    log.warn("a=listen, m=Resume token is no longer in the oplog, resuming from now");
+                    this.devices.clear();
+                    this.token = null;
+                } else {
+                    this.recover(exception);
+                }
+            }
+        }
+        this.checkpoint(true);
+    }
+
+    private void handle(final ChangeStreamDocument<Document> change) {
+        if (change.getDocumentKey() == null) {
+            log.info("a=handle, o={}", change.getOperationTypeString());
+            this.devices.clear();
+            return;
+        }
+        final var id = change.getDocumentKey().getBinary("_id").asUuid();
+        this.devices.evict(id);
+        this.feed.publish(new DeviceChangeData(change.getOperationTypeString(), id, this.device(id, change.getFullDocument())));
+    }
+
+    /**
+     * Reads the changed device. A document that cannot be read is published without it, so the stream keeps moving
+     * past the change instead of failing on it again after every reopen.
+     */
+    private DeviceData device(final UUID id, final Document document) {
+        if (document == null) return null;
+        try {
+            return this.mapper.toDTO(this.operations.getConverter().read(Device.class, document));
+        } catch (final RuntimeException exception) {
+            log.error("a=handle, id={}, e={}, m={}", id, exception.getClass().getSimpleName(), exception.getMessage());
+            return null;
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        final var stream = this.operations.getCollection(this.operations.getCollectionName(Device.class))
+                .watch()
+                .fullDocument(UPDATE_LOOKUP)
+                .maxAwaitTime(1, SECONDS);
+        return (this.token == null ? stream : stream.resumeAfter(this.token)).cursor();
+    }
+
+    private BsonDocument loadToken() {
+        final var stored = this.operations.findById(this.listenerName, Document.class, TOKENS_COLLECTION);
+        return stored == null ? null : new BsonDocument(TOKEN_DATA, new BsonString(stored.getString(TOKEN_DATA)));
+    }
+
+    private void checkpoint(final boolean force) {
+        if (this.token == null || this.token.equals(this.checkpointedToken)) return;
+        if (!force && nanoTime() - this.lastCheckpoint < this.checkpointInterval.toNanos()) return;
+        this.operations.upsert(query(where("_id").is(this.listenerName)),
+                update(TOKEN_DATA, this.token.getString(TOKEN_DATA).getValue()),
+                TOKENS_COLLECTION);
+        this.checkpointedToken = this.token;
+        this.lastCheckpoint = nanoTime();
+    }
+
+    private void recover(final RuntimeException exception) {
+        if (!this.running) return;
+        log.error("a=listen, e={}, m={}", exception.getClass().getSimpleName(), exception.getMessage());
+        try {
+            Thread.sleep(RETRY_DELAY);
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            this.running = false;
+        }
+    }
+}
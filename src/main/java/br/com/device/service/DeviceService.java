@@ -1,54 +1,146 @@
 package br.com.device.service;
 
+import br.com.device.dto.CursorPageData;
 import br.com.device.dto.DeviceData;
 import br.com.device.exception.DeviceInUseException;
 import br.com.device.exception.DeviceNotFoundException;
+import br.com.device.exception.InvalidCursorException;
+import br.com.device.exception.PreconditionFailedException;
 import br.com.device.mapper.DeviceDataMapper;
-import br.com.device.mapper.StateMapper;
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceCursor;
+import br.com.device.repository.DeviceProjection;
 import br.com.device.repository.DeviceRepository;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
 
-import static br.com.device.model.State.IN_USE;
-import static org.springframework.data.domain.Example.of;
+import static br.com.device.config.CacheConfig.DEVICES_CACHE;
+import static br.com.device.config.CacheConfig.DEVICE_COUNTS_CACHE;
+import static br.com.device.config.MongoConfig.MONGO_BULKHEAD;
+import static java.util.Objects.requireNonNull;
 
 @Slf4j
 @Service
+@Timed("device.operation")
 @RequiredArgsConstructor
 public class DeviceService {
 
-    private final StateMapper stateMapper;
     private final DeviceDataMapper mapper;
     private final DeviceRepository repository;
+    private final CacheManager cacheManager;
+    private final DeviceStatsService stats;
+    private final BulkheadRegistry bulkheads;
+    private final SingleFlight<UUID, DeviceData> inFlightReads = new SingleFlight<>();
 
     @Retry(name = "save-device-retry")
     @CircuitBreaker(name = "save-device-cb")
+    @CachePut(cacheNames = DEVICES_CACHE, key = "#result.id")
+    @Bulkhead(name = MONGO_BULKHEAD)
     public DeviceData save(final DeviceData device) {
         final var entity = this.mapper.toEntity(device);
         log.info("a=save, e={}", entity);
         this.repository.save(entity);
         log.info("a=save, e={}", entity);
-        return this.mapper.toDTO(entity);
+        final var saved = this.mapper.toDTO(entity);
+        this.stats.created(saved);
+        return saved;
     }
 
     @Retry(name = "read-all-devices-retry")
     @CircuitBreaker(name = "read-all-devices-cb")
-    public Page<DeviceData> readAll(final Pageable pageable, final DeviceData filter) {
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public Page<DeviceData> readAll(final Pageable pageable, final DeviceData filter, final DeviceProjection projection) {
         final var entityFilter = this.mapper.toEntity(filter);
-        log.info("a=readAll, f={}", entityFilter);
-        return this.repository.findAll(of(entityFilter), pageable)
+        log.info("a=readAll, f={}, p={}", entityFilter, projection);
+        return this.repository.findAllMatching(entityFilter, pageable, projection)
                 .map(this.mapper::toDTO);
     }
 
     /**
-     * Reads one device using the provided id.
+     * Reads devices without counting the total, so only the presence of a next page is known.
+     *
+     * @param pageable   page request.
+     * @param filter     device fields that should match.
+     * @param projection device fields that should be read.
+     * @return slice of devices.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public Slice<DeviceData> readSlice(final Pageable pageable, final DeviceData filter, final DeviceProjection projection) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=readSlice, f={}, p={}", entityFilter, projection);
+        return this.repository.findSliceMatching(entityFilter, pageable, projection)
+                .map(this.mapper::toDTO);
+    }
+
+    /**
+     * Reads devices with an approximate total. Unfiltered totals come from the collection metadata,
+     * filtered totals are counted once and cached for a short period.
+     *
+     * @param pageable   page request.
+     * @param filter     device fields that should match.
+     * @param projection device fields that should be read.
+     * @return page of devices with an estimated total.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public Page<DeviceData> readAllEstimated(final Pageable pageable, final DeviceData filter, final DeviceProjection projection) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=readAllEstimated, f={}, p={}", entityFilter, projection);
+        final var slice = this.repository.findSliceMatching(entityFilter, pageable, projection);
+        final var total = new Device().equals(entityFilter)
+                ? this.repository.estimatedCount()
+                : this.estimatedCount(entityFilter);
+        return new PageImpl<>(slice.getContent(), pageable, total)
+                .map(this.mapper::toDTO);
+    }
+
+    /**
+     * Reads devices using keyset pagination. The sort of the first page is kept by the continuation tokens.
+     *
+     * @param cursor     continuation token returned by the previous page, blank for the first page.
+     * @param pageable   page size and sort of the first page, the page number is ignored.
+     * @param filter     device fields that should match.
+     * @param projection device fields that should be read.
+     * @return devices of the page and the continuation token of the next one, if any.
+     * @throws InvalidCursorException if the cursor is malformed or the sort key is not supported.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public CursorPageData<DeviceData> readAll(final String cursor, final Pageable pageable, final DeviceData filter, final DeviceProjection projection) throws InvalidCursorException {
+        final var position = cursor.isBlank() ? DeviceCursor.first(pageable.getSort()) : DeviceCursor.decode(cursor);
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=readAll, c={}, f={}, p={}", position, entityFilter, projection);
+        final var devices = this.repository.findAllAfter(entityFilter, position, pageable.getPageSize() + 1, projection);
+        final var hasNext = devices.size() > pageable.getPageSize();
+        final var content = hasNext ? devices.subList(0, pageable.getPageSize()) : devices;
+        final var next = hasNext ? position.after(content.getLast()).encode() : null;
+        return new CursorPageData<>(content.stream().map(this.mapper::toDTO).toList(), next);
+    }
+
+    /**
+     * Reads one device using the provided id. Devices are cached and kept up to date by the write operations,
+     * and concurrent cache misses for the same id share a single database query. Only that query takes a Mongo
+     * bulkhead permit, the callers waiting for it do not.
      *
      * @param id device identifier.
      * @return device data.
@@ -56,47 +148,84 @@ public class DeviceService {
      */
     @Retry(name = "read-one-device-retry")
     @CircuitBreaker(name = "read-one-device-cb")
+    @Cacheable(cacheNames = DEVICES_CACHE)
     public DeviceData readOne(final UUID id) throws DeviceNotFoundException{
-        return this.repository.findById(id)
+        final var bulkhead = this.bulkheads.bulkhead(MONGO_BULKHEAD);
+        return this.inFlightReads.execute(id, () -> bulkhead.executeSupplier(() -> this.repository.findById(id))
                 .map(this.mapper::toDTO)
-                .orElseThrow(DeviceNotFoundException::new);
+                .orElseThrow(DeviceNotFoundException::new));
     }
 
     /**
      * Updates a device partially or fully using the provided data.
+     * The state check and the field replacement are performed atomically in a single database operation,
+     * which returns the previous device so the updated one is rebuilt without reading it again.
      *
-     * @param id     device identifier.
-     * @param device data that should be replaced.
+     * @param id              device identifier.
+     * @param device          data that should be replaced.
+     * @param expectedVersion version the device must have, ignored if null.
      * @return updated device.
-     * @throws DeviceNotFoundException if device does not exist.
-     * @throws DeviceInUseException    if there is an attempt to update the name or brand and device is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @throws DeviceNotFoundException     if device does not exist.
+     * @throws DeviceInUseException        if there is an attempt to update the name or brand and device is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @throws PreconditionFailedException if device does not have the expected version.
      */
     @CircuitBreaker(name = "update-device-cb")
-    public DeviceData update(final UUID id, final DeviceData device) throws DeviceNotFoundException, DeviceInUseException {
-        final var foundDevice = this.readOne(id);
-        if (this.isInUse(foundDevice) && (device.name() != null || device.brand() != null)) {
-            throw new DeviceInUseException("Name or brand cannot be changed while device is in use");
-        }
-        final var deviceToUpdate = this.mapper.toDTO(device, foundDevice);
-        log.info("a=update, d={}", deviceToUpdate);
-        return this.save(deviceToUpdate);
+    @CachePut(cacheNames = DEVICES_CACHE, key = "#id")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public DeviceData update(final UUID id, final DeviceData device, final Long expectedVersion) throws DeviceNotFoundException, DeviceInUseException, PreconditionFailedException {
+        final var changes = this.mapper.toEntity(device);
+        final var changesNameOrBrand = device.name() != null || device.brand() != null;
+        log.info("a=update, id={}, c={}, v={}", id, changes, expectedVersion);
+        final var before = this.repository.updateFields(id, changes, changesNameOrBrand, expectedVersion)
+                .map(this.mapper::toDTO)
+                .orElseThrow(() -> this.rejection(id, expectedVersion,
+                        changesNameOrBrand ? "Name or brand cannot be changed while device is in use" : null));
+        final var changed = changesNameOrBrand || device.state() != null;
+        final var after = this.mapper.toDTO(device, before, changed ? before.version() + 1 : before.version());
+        this.stats.updated(before, after);
+        return after;
     }
 
     /**
      * Deletes a device using the provided id.
+     * The state check and the removal are performed atomically in a single database operation.
      *
-     * @param id device identifier.
-     * @throws DeviceNotFoundException if device does not exist.
-     * @throws DeviceInUseException    if device is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @param id              device identifier.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @throws DeviceNotFoundException     if device does not exist.
+     * @throws DeviceInUseException        if device is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @throws PreconditionFailedException if device does not have the expected version.
      */
     @CircuitBreaker(name = "delete-device-cb")
-    public void delete(final UUID id) throws DeviceNotFoundException, DeviceInUseException {
-        final var device = this.readOne(id);
-        if (this.isInUse(device)) throw new DeviceInUseException("In use device cannot be removed");
-        this.repository.deleteById(id);
+    @CacheEvict(cacheNames = DEVICES_CACHE, key = "#id")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public void delete(final UUID id, final Long expectedVersion) throws DeviceNotFoundException, DeviceInUseException, PreconditionFailedException {
+        final var deleted = this.repository.deleteIfNotInUse(id, expectedVersion)
+                .map(this.mapper::toDTO)
+                .orElseThrow(() -> this.rejection(id, expectedVersion, "In use device cannot be removed"));
+        this.stats.deleted(deleted);
+    }
+
+    private long estimatedCount(final Device filter) {
+        final var counts = requireNonNull(this.cacheManager.getCache(DEVICE_COUNTS_CACHE));
+        return requireNonNull(counts.get(filter, () -> this.repository.countMatching(filter)));
     }
 
-    private boolean isInUse(final DeviceData device) {
-        return IN_USE == this.stateMapper.fromString(device.state());
+    /**
+     * Resolves why a conditional write did not match any device. Only reached on the failure path.
+     * The state is only checked if an in use message is provided, and the device is only read if a version is expected.
+     */
+    private RuntimeException rejection(final UUID id, final Long expectedVersion, final String inUseMessage) {
+        if (expectedVersion == null) {
+            return inUseMessage != null && this.repository.existsById(id)
+                    ? new DeviceInUseException(inUseMessage)
+                    : new DeviceNotFoundException();
+        }
+        return this.repository.findById(id)
+                .map(this.mapper::toDTO)
+                .<RuntimeException>map(current -> inUseMessage != null && expectedVersion.equals(current.version())
+                        ? new DeviceInUseException(inUseMessage)
+                        : new PreconditionFailedException("Device version does not match"))
+                .orElseGet(DeviceNotFoundException::new);
     }
 }
@@ -0,0 +1,96 @@
+package br.com.device.service;
+
+import br.com.device.dto.DeviceData;
+import br.com.device.dto.DeviceStatsData;
+import br.com.device.mapper.StateMapper;
+import br.com.device.repository.DeviceRepository;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static br.com.device.config.MongoConfig.MONGO_BULKHEAD;
+
+/**
+ * Keeps the number of devices per brand and state in memory. Counters are adjusted by the write operations of this
+ * instance as they happen and periodically replaced by an aggregation, which also picks up the writes made by
+ * other instances and the bulk state changes. A write racing with a reconciliation may be off until the next one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceStatsService {
+
+    private final StateMapper stateMapper;
+    private final DeviceRepository repository;
+    private volatile Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public void created(final DeviceData device) {
+        this.counter(device).increment();
+    }
+
+    public void updated(final DeviceData before, final DeviceData after) {
+        if (new Key(before).equals(new Key(after))) return;
+        this.counter(before).decrement();
+        this.counter(after).increment();
+    }
+
+    public void deleted(final DeviceData device) {
+        this.counter(device).decrement();
+    }
+
+    /**
+     * Reads the counters. The cost depends on the number of brands, not on the number of devices.
+     *
+     * @return device counts.
+     */
+    public DeviceStatsData stats() {
+        var total = 0L;
+        final var byState = new TreeMap<String, Long>();
+        final var byBrand = new TreeMap<String, Map<String, Long>>();
+        for (final var entry : this.counts.entrySet()) {
+            final var count = entry.getValue().sum();
+            if (count <= 0) continue;
+            total += count;
+            byState.merge(entry.getKey().state(), count, Long::sum);
+            byBrand.computeIfAbsent(entry.getKey().brand(), _ -> new TreeMap<>()).put(entry.getKey().state(), count);
+        }
+        return new DeviceStatsData(total, byState, byBrand);
+    }
+
+    /**
+     * Replaces the counters with the result of an aggregation over the devices collection.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${device.stats.reconcile-interval}", fixedDelayString = "${device.stats.reconcile-interval}")
+    @Bulkhead(name = MONGO_BULKHEAD)
+    public void reconcile() {
+        final var reconciled = new ConcurrentHashMap<Key, LongAdder>();
+        this.repository.countByBrandAndState().forEach((brand, states) -> states.forEach((state, count) -> {
+            final var counter = new LongAdder();
+            counter.add(count);
+            reconciled.put(new Key(brand, this.stateMapper.toString(state)), counter);
+        }));
+        this.counts = reconciled;
+        log.info("a=reconcile, s={}", reconciled.size());
+    }
+
+    private LongAdder counter(final DeviceData device) {
+        return this.counts.computeIfAbsent(new Key(device), _ -> new LongAdder());
+    }
+
+    private record Key(String brand, String state) {
+
+        private Key(final DeviceData device) {
+            this(device.brand(), device.state());
+        }
+    }
+}
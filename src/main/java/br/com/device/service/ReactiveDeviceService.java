@@ -0,0 +1,344 @@
+package br.com.device.service;
+
+import br.com.device.dto.CursorPageData;
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import br.com.device.dto.DeviceLookupResultData;
+import br.com.device.dto.DeviceStatsData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.dto.StateChangeResultData;
+import br.com.device.exception.BatchTooLargeException;
+import br.com.device.exception.DeviceInUseException;
+import br.com.device.exception.DeviceNotFoundException;
+import br.com.device.exception.InvalidCursorException;
+import br.com.device.exception.PreconditionFailedException;
+import br.com.device.mapper.DeviceDataMapper;
+import br.com.device.mapper.StateMapper;
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceCursor;
+import br.com.device.repository.DeviceProjection;
+import br.com.device.repository.ReactiveDeviceRepository;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static reactor.core.publisher.Mono.defer;
+import static reactor.core.publisher.Mono.error;
+import static reactor.core.publisher.Mono.just;
+
+/**
+ * Non-blocking variant of {@link DeviceService} and {@link DeviceBatchService} used by the reactive profile.
+ * Operations have the same semantics, but neither devices nor filtered counts are cached, so every read goes to
+ * the database.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveDeviceService {
+
+    private final DeviceDataMapper mapper;
+    private final StateMapper stateMapper;
+    private final ReactiveDeviceRepository repository;
+    private final DeviceStatsService stats;
+    private final DeviceChangeFeed changeFeed;
+    private final int maxBatchSize;
+    private final int lookupMaxSize;
+    private final int exportBatchSize;
+    private final int changesBufferSize;
+
+    public ReactiveDeviceService(final DeviceDataMapper mapper,
+                                 final StateMapper stateMapper,
+                                 final ReactiveDeviceRepository repository,
+                                 final DeviceStatsService stats,
+                                 final DeviceChangeFeed changeFeed,
+                                 @Value("${device.batch.max-size}") final int maxBatchSize,
+                                 @Value("${device.lookup.max-size}") final int lookupMaxSize,
+                                 @Value("${device.export.batch-size}") final int exportBatchSize,
+                                 @Value("${device.changes.buffer-size}") final int changesBufferSize) {
+        this.mapper = mapper;
+        this.stateMapper = stateMapper;
+        this.repository = repository;
+        this.stats = stats;
+        this.changeFeed = changeFeed;
+        this.maxBatchSize = maxBatchSize;
+        this.lookupMaxSize = lookupMaxSize;
+        this.exportBatchSize = exportBatchSize;
+        this.changesBufferSize = changesBufferSize;
+    }
+
+    @Retry(name = "save-device-retry")
+    @CircuitBreaker(name = "save-device-cb")
+    public Mono<DeviceData> save(final DeviceData device) {
+        final var entity = this.mapper.toEntity(device);
+        log.info("a=save, e={}", entity);
+        return this.repository.save(entity)
+                .doOnNext(saved -> log.info("a=save, e={}", saved))
+                .map(this.mapper::toDTO)
+                .doOnNext(this.stats::created);
+    }
+
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    public Mono<Page<DeviceData>> readAll(final Pageable pageable, final DeviceData filter, final DeviceProjection projection) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=readAll, f={}, p={}", entityFilter, projection);
+        return this.page(this.repository.findAllMatching(entityFilter, pageable, projection), pageable,
+                this.repository.countMatching(entityFilter));
+    }
+
+    /**
+     * Reads devices with an approximate total. Unfiltered totals come from the collection metadata,
+     * filtered totals are counted.
+     *
+     * @param pageable   page request.
+     * @param filter     device fields that should match.
+     * @param projection device fields that should be read.
+     * @return page of devices with an estimated total.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    public Mono<Page<DeviceData>> readAllEstimated(final Pageable pageable, final DeviceData filter, final DeviceProjection projection) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=readAllEstimated, f={}, p={}", entityFilter, projection);
+        final var total = new Device().equals(entityFilter)
+                ? this.repository.estimatedCount()
+                : this.repository.countMatching(entityFilter);
+        return this.page(this.repository.findAllMatching(entityFilter, pageable, projection), pageable, total);
+    }
+
+    /**
+     * Reads devices without counting the total, so only the presence of a next page is known.
+     *
+     * @param pageable   page request.
+     * @param filter     device fields that should match.
+     * @param projection device fields that should be read.
+     * @return slice of devices.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    public Mono<Slice<DeviceData>> readSlice(final Pageable pageable, final DeviceData filter, final DeviceProjection projection) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=readSlice, f={}, p={}", entityFilter, projection);
+        return this.repository.findSliceMatching(entityFilter, pageable, projection)
+                .map(slice -> slice.map(this.mapper::toDTO));
+    }
+
+    /**
+     * Reads devices using keyset pagination. The sort of the first page is kept by the continuation tokens.
+     *
+     * @param cursor     continuation token returned by the previous page, blank for the first page.
+     * @param pageable   page size and sort of the first page, the page number is ignored.
+     * @param filter     device fields that should match.
+     * @param projection device fields that should be read.
+     * @return devices of the page and the continuation token of the next one, if any.
+     * @throws InvalidCursorException if the cursor is malformed or the sort key is not supported.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    public Mono<CursorPageData<DeviceData>> readAll(final String cursor, final Pageable pageable, final DeviceData filter, final DeviceProjection projection) throws InvalidCursorException {
+        return defer(() -> {
+            final var position = cursor.isBlank() ? DeviceCursor.first(pageable.getSort()) : DeviceCursor.decode(cursor);
+            final var entityFilter = this.mapper.toEntity(filter);
+            log.info("a=readAll, c={}, f={}, p={}", position, entityFilter, projection);
+            return this.repository.findAllAfter(entityFilter, position, pageable.getPageSize() + 1, projection)
+                    .collectList()
+                    .map(devices -> {
+                        final var hasNext = devices.size() > pageable.getPageSize();
+                        final var content = hasNext ? devices.subList(0, pageable.getPageSize()) : devices;
+                        final var next = hasNext ? position.after(content.getLast()).encode() : null;
+                        return new CursorPageData<>(content.stream().map(this.mapper::toDTO).toList(), next);
+                    });
+        });
+    }
+
+    /**
+     * Exports devices straight from a database cursor. Cursor batches are only fetched as the response is written,
+     * so memory usage depends neither on the number of devices nor on the speed of the client.
+     *
+     * @param filter device fields that should match.
+     * @return devices.
+     */
+    @CircuitBreaker(name = "read-all-devices-cb")
+    public Flux<DeviceData> export(final DeviceData filter) {
+        final var entityFilter = this.mapper.toEntity(filter);
+        log.info("a=export, f={}", entityFilter);
+        return this.repository.streamMatching(entityFilter, this.exportBatchSize)
+                .map(this.mapper::toDTO);
+    }
+
+    /**
+     * Reads many devices at once with a single query.
+     *
+     * @param ids identifiers of the devices that should be read, duplicates are read once.
+     * @return found devices and identifiers of the missing ones, both in the order they were provided.
+     * @throws BatchTooLargeException if more identifiers than allowed are provided.
+     */
+    @Retry(name = "read-all-devices-retry")
+    @CircuitBreaker(name = "read-all-devices-cb")
+    public Mono<DeviceLookupResultData> lookup(final List<UUID> ids) throws BatchTooLargeException {
+        if (ids.size() > this.lookupMaxSize) {
+            return error(new BatchTooLargeException("Lookup must not have more than " + this.lookupMaxSize + " devices"));
+        }
+        final var requested = new LinkedHashSet<>(ids);
+        return this.repository.findAllById(requested)
+                .map(this.mapper::toDTO)
+                .collectMap(DeviceData::id)
+                .map(found -> {
+                    final var devices = new ArrayList<DeviceData>(found.size());
+                    final var missing = new ArrayList<UUID>();
+                    for (final var id : requested) {
+                        final var device = found.get(id);
+                        if (device != null) devices.add(device);
+                        else missing.add(id);
+                    }
+                    log.info("a=lookup, s={}, m={}", requested.size(), missing.size());
+                    return new DeviceLookupResultData(devices, missing);
+                });
+    }
+
+    /**
+     * Reads the device counts kept by {@link DeviceStatsService}.
+     *
+     * @return device counts.
+     */
+    public Mono<DeviceStatsData> stats() {
+        return Mono.fromSupplier(this.stats::stats);
+    }
+
+    /**
+     * Streams the changes of the devices matching the provided filter. Changes are buffered up to the configured
+     * size for a slow subscriber, which is failed beyond that and expected to reconnect.
+     *
+     * @param filter device fields that should match.
+     * @return matching changes, the subscription is cancelled when the subscriber goes away.
+     */
+    public Flux<DeviceChangeData> changes(final DeviceData filter) {
+        return Flux.<DeviceChangeData>create(sink -> {
+                    final var subscription = this.changeFeed.subscribe(filter, sink::next, sink::complete);
+                    sink.onDispose(subscription::cancel);
+                })
+                .onBackpressureBuffer(this.changesBufferSize);
+    }
+
+    /**
+     * Reads one device using the provided id.
+     *
+     * @param id device identifier.
+     * @return device data.
+     * @throws DeviceNotFoundException if device does not exist.
+     */
+    @Retry(name = "read-one-device-retry")
+    @CircuitBreaker(name = "read-one-device-cb")
+    public Mono<DeviceData> readOne(final UUID id) throws DeviceNotFoundException {
+        return this.repository.findById(id)
+                .map(this.mapper::toDTO)
+                .switchIfEmpty(error(DeviceNotFoundException::new));
+    }
+
+    /**
+     * Updates a device partially or fully using the provided data.
+     * The state check and the field replacement are performed atomically in a single database operation,
+     * which returns the previous device so the updated one is rebuilt without reading it again.
+     *
+     * @param id              device identifier.
+     * @param device          data that should be replaced.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @return updated device.
+     * @throws DeviceNotFoundException     if device does not exist.
+     * @throws DeviceInUseException        if there is an attempt to update the name or brand and device is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @throws PreconditionFailedException if device does not have the expected version.
+     */
+    @CircuitBreaker(name = "update-device-cb")
+    public Mono<DeviceData> update(final UUID id, final DeviceData device, final Long expectedVersion) throws DeviceNotFoundException, DeviceInUseException, PreconditionFailedException {
+        final var changes = this.mapper.toEntity(device);
+        final var changesNameOrBrand = device.name() != null || device.brand() != null;
+        final var changed = changesNameOrBrand || device.state() != null;
+        log.info("a=update, id={}, c={}, v={}", id, changes, expectedVersion);
+        return this.repository.updateFields(id, changes, changesNameOrBrand, expectedVersion)
+                .map(this.mapper::toDTO)
+                .switchIfEmpty(this.rejection(id, expectedVersion,
+                        changesNameOrBrand ? "Name or brand cannot be changed while device is in use" : null))
+                .map(before -> {
+                    final var after = this.mapper.toDTO(device, before, changed ? before.version() + 1 : before.version());
+                    this.stats.updated(before, after);
+                    return after;
+                });
+    }
+
+    /**
+     * Changes the state of many devices at once, selected by identifiers, by filter or by both.
+     *
+     * @param change devices selection and new state.
+     * @return matched and modified counts.
+     * @throws BatchTooLargeException if more identifiers than allowed are provided.
+     */
+    @CircuitBreaker(name = "update-devices-cb")
+    public Mono<StateChangeResultData> updateState(final StateChangeData change) throws BatchTooLargeException {
+        if (change.ids() != null && change.ids().size() > this.maxBatchSize) {
+            return error(new BatchTooLargeException("Batch must not have more than " + this.maxBatchSize + " devices"));
+        }
+        final var filter = change.filter() == null ? null : this.mapper.toEntity(change.filter());
+        final var state = this.stateMapper.fromString(change.state());
+        return this.repository.updateState(change.ids(), filter, state)
+                .doOnNext(result -> log.info("a=updateState, f={}, s={}, m={}, u={}", filter, state, result.getMatchedCount(), result.getModifiedCount()))
+                .map(result -> new StateChangeResultData(result.getMatchedCount(), result.getModifiedCount()));
+    }
+
+    /**
+     * Deletes a device using the provided id.
+     * The state check and the removal are performed atomically in a single database operation.
+     *
+     * @param id              device identifier.
+     * @param expectedVersion version the device must have, ignored if null.
+     * @return completion signal.
+     * @throws DeviceNotFoundException     if device does not exist.
+     * @throws DeviceInUseException        if device is in the {@link br.com.device.model.State#IN_USE IN_USE} state.
+     * @throws PreconditionFailedException if device does not have the expected version.
+     */
+    @CircuitBreaker(name = "delete-device-cb")
+    public Mono<Void> delete(final UUID id, final Long expectedVersion) throws DeviceNotFoundException, DeviceInUseException, PreconditionFailedException {
+        return this.repository.deleteIfNotInUse(id, expectedVersion)
+                .map(this.mapper::toDTO)
+                .switchIfEmpty(this.rejection(id, expectedVersion, "In use device cannot be removed"))
+                .doOnNext(this.stats::deleted)
+                .then();
+    }
+
+    private Mono<Page<DeviceData>> page(final Flux<Device> devices, final Pageable pageable, final Mono<Long> total) {
+        return devices.map(this.mapper::toDTO)
+                .collectList()
+                .zipWith(total)
+                .<Page<DeviceData>>map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    /**
+     * Resolves why a conditional write did not match any device. Only subscribed on the failure path.
+     * The state is only checked if an in use message is provided, and the device is only read if a version is expected.
+     */
+    private <T> Mono<T> rejection(final UUID id, final Long expectedVersion, final String inUseMessage) {
+        if (expectedVersion == null) {
+            return defer(() -> inUseMessage != null ? this.repository.existsById(id) : just(false))
+                    .flatMap(inUse -> error(inUse ? new DeviceInUseException(inUseMessage) : new DeviceNotFoundException()));
+        }
+        return defer(() -> this.repository.findById(id))
+                .map(this.mapper::toDTO)
+                .<T>flatMap(current -> error(inUseMessage != null && expectedVersion.equals(current.version())
+                        ? new DeviceInUseException(inUseMessage)
+                        : new PreconditionFailedException("Device version does not match")))
+                .switchIfEmpty(defer(() -> error(new DeviceNotFoundException())));
+    }
+}
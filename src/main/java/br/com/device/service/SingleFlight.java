@@ -0,0 +1,52 @@
+package br.com.device.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions for the same key. Callers arriving while an execution is in flight wait for it and
+ * receive its result or exception instead of starting their own.
+ *
+ * @param <K> key type.
+ * @param <V> result type.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the supplier unless there is an execution in flight for the same key, in which case its outcome is shared.
+     *
+     * @param key      execution key.
+     * @param supplier execution that produces the result.
+     * @return execution result.
+     */
+    public V execute(final K key, final Supplier<V> supplier) {
+        final var call = new CompletableFuture<V>();
+        final var existing = this.inFlight.putIfAbsent(key, call);
+        if (existing != null) return await(existing);
+        try {
+            final var value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (final RuntimeException | Error exception) {
+            call.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            this.inFlight.remove(key, call);
+        }
+    }
+
+    private static <V> V await(final CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (final CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) throw cause;
+            if (exception.getCause() instanceof Error cause) throw cause;
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(this.delegate, 100, this.meterRegistry);
+
+    @Test
+    void shouldVerifyTokenOnceUntilItExpires() {
+        // Given
+        final var jwt = jwt(Instant.now().plus(1, HOURS));
+
+        when(this.delegate.decode(anyString())).thenReturn(jwt);
+
+        // When
+        final var first = this.decoder.decode("token");
+        final var second = this.decoder.decode("token");
+
+        // Then
+        assertSame(jwt, first);
+        assertSame(jwt, second);
+        assertEquals(1, this.meterRegistry.counter("device.jwt.cache", "result", "hit").count());
+        assertEquals(1, this.meterRegistry.counter("device.jwt.cache", "result", "miss").count());
+        assertEquals(1, this.meterRegistry.timer("device.jwt.verification").count());
+
+        verify(this.delegate).decode("token");
+    }
+
+    @Test
+    void shouldVerifyExpiredTokensAgain() {
+        // Given
+        when(this.delegate.decode(anyString())).thenReturn(jwt(Instant.now().minus(1, MINUTES)));
+
+        // When
+        this.decoder.decode("token");
+        this.decoder.decode("token");
+
+        // Then
+        verify(this.delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void shouldVerifyTokensWithoutExpirationAgain() {
+        // Given
+        when(this.delegate.decode(anyString())).thenReturn(jwt(null));
+
+        // When
+        this.decoder.decode("token");
+        this.decoder.decode("token");
+
+        // Then
+        verify(this.delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void shouldNotCacheRejectedTokens() {
+        // Given
+        when(this.delegate.decode(anyString())).thenThrow(new BadJwtException("Invalid signature"));
+
+        // When
+        assertThrows(BadJwtException.class, () -> this.decoder.decode("token"));
+        assertThrows(BadJwtException.class, () -> this.decoder.decode("token"));
+
+        // Then
+        assertEquals(2, this.meterRegistry.counter("device.jwt.cache", "result", "miss").count());
+
+        verify(this.delegate, times(2)).decode("token");
+    }
+
+    private static Jwt jwt(final Instant expiresAt) {
+        final var builder = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("device-service")
+                .issuedAt(Instant.now().minus(1, MINUTES));
+        return expiresAt == null ? builder.build() : builder.expiresAt(expiresAt).build();
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.device.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.mongodb.event.ConnectionCheckOutFailedEvent.Reason.TIMEOUT;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolWaitListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConnectionPoolWaitListener listener = new ConnectionPoolWaitListener(this.meterRegistry);
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress());
+
+    @Test
+    void shouldRecordConnectionWaitTime() {
+        // When
+        this.listener.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(this.serverId), 1, 5_000_000));
+        this.listener.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(this.serverId, 2, TIMEOUT, 30_000_000));
+
+        // Then
+        final var acquired = this.meterRegistry.get("device.mongo.pool.wait").tag("outcome", "acquired").timer();
+        final var failed = this.meterRegistry.get("device.mongo.pool.wait").tag("outcome", "failed").timer();
+        assertEquals(1, acquired.count());
+        assertEquals(5, acquired.totalTime(MILLISECONDS));
+        assertEquals(1, failed.count());
+        assertEquals(30, failed.totalTime(MILLISECONDS));
+    }
+}
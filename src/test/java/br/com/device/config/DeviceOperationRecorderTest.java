@@ -0,0 +1,119 @@
+package br.com.device.config;
+
+import br.com.device.dto.DeviceData;
+import br.com.device.exception.DeviceNotFoundException;
+import br.com.device.repository.DeviceRepository;
+import br.com.device.service.DeviceService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static br.com.device.repository.DeviceProjection.ALL;
+import static java.util.UUID.fromString;
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.data.domain.PageRequest.of;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@SpringBootTest
+@Import(MongoPopulatorConfig.class)
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class DeviceOperationRecorderTest {
+
+    private static final UUID IPHONE_ID = fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e");
+
+    @MockitoSpyBean
+    private DeviceRepository repository;
+
+    @Autowired
+    private DeviceService service;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void shouldRecordOperations() throws Exception {
+        // Given
+        final var filter = DeviceData.builder().name("iPhone").brand("Apple").state("available").build();
+        final var missingId = randomUUID();
+
+        // When
+        final var events = record(() -> {
+            this.service.readOne(IPHONE_ID);
+            this.service.readAll(of(0, 10), filter, ALL);
+            assertThrows(DeviceNotFoundException.class, () -> this.service.readOne(missingId));
+        });
+
+        // Then
+        assertEquals(3, events.size());
+
+        final var readOne = events.getFirst();
+        assertEquals("readOne", readOne.getString("operation"));
+        assertEquals(IPHONE_ID.toString(), readOne.getString("deviceId"));
+        assertEquals(1, readOne.getInt("mongoCommands"));
+        assertFalse(readOne.getDuration("mongoTime").isZero());
+        assertFalse(readOne.getDuration("mappingTime").isZero());
+        assertEquals(1, readOne.getInt("attempts"));
+        assertEquals("CLOSED", readOne.getString("circuitBreakerState"));
+        assertNull(readOne.getString("failure"));
+
+        final var readAll = events.get(1);
+        assertEquals("readAll", readAll.getString("operation"));
+        assertEquals("name,brand,state", readAll.getString("filter"));
+
+        final var missing = events.get(2);
+        assertEquals(missingId.toString(), missing.getString("deviceId"));
+        assertEquals(DeviceNotFoundException.class.getName(), missing.getString("failure"));
+    }
+
+    @Test
+    void shouldRecordFailedCommandsAndAttempts() throws Exception {
+        // Given
+        doAnswer(_ -> {
+            this.mongoTemplate.executeCommand("{ unknownCommand: 1 }");
+            return Optional.empty();
+        }).when(this.repository).findById(any());
+
+        // When
+        final var events = record(() -> assertThrows(DataAccessException.class, () -> this.service.readOne(IPHONE_ID)));
+
+        // Then
+        final var readOne = events.getFirst();
+        assertEquals(3, readOne.getInt("attempts"));
+        assertEquals(3, readOne.getInt("mongoCommands"));
+        assertFalse(readOne.getDuration("mongoTime").isZero());
+        assertEquals("HALF_OPEN", readOne.getString("circuitBreakerState"));
+        assertNotNull(readOne.getString("failure"));
+    }
+
+    private static List<RecordedEvent> record(final Runnable operations) throws Exception {
+        final var file = Files.createTempFile("device-operations", ".jfr");
+        try (final var recording = new Recording()) {
+            recording.enable(DeviceOperationEvent.NAME);
+            recording.start();
+            operations.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(DeviceOperationEvent.NAME))
+                    .toList();
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.device.config;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEndpointTest {
+
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint(1, DataSize.ofMegabytes(10));
+
+    @AfterEach
+    void tearDown() {
+        this.endpoint.stop("test");
+    }
+
+    @Test
+    void shouldStartDumpAndStopRecording() throws Exception {
+        // When
+        final var started = this.endpoint.start("test", "profile", Duration.ofMinutes(5));
+        final var running = this.endpoint.start("test", null, null);
+        final var recordings = this.endpoint.recordings();
+        final var dump = this.endpoint.dump("test");
+        final byte[] content;
+        try (final var stream = dump.getInputStream()) {
+            content = stream.readAllBytes();
+        }
+        final var stopped = this.endpoint.stop("test");
+
+        // Then
+        assertEquals("RUNNING", started.state());
+        assertEquals(Duration.ofMinutes(5), started.maxAge());
+        assertEquals(started.id(), running.id());
+        assertEquals(started.id(), recordings.get("test").id());
+        assertTrue(content.length > 0);
+        assertEquals("STOPPED", stopped.state());
+        assertTrue(this.endpoint.recordings().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"../../etc/cron.d/x", "a/b", "name.jfr", " ", ""})
+    void shouldNotStartRecordingWithInvalidName(final String name) {
+        // When
+        final var exception = assertThrows(InvalidEndpointRequestException.class, () -> this.endpoint.start(name, null, null));
+
+        // Then
+        assertEquals("Invalid recording name", exception.getReason());
+        assertTrue(this.endpoint.recordings().isEmpty());
+    }
+
+    @Test
+    void shouldNotStartRecordingWithTooLongName() {
+        // When and then
+        assertThrows(InvalidEndpointRequestException.class, () -> this.endpoint.start("a".repeat(65), null, null));
+    }
+
+    @Test
+    void shouldNotStartMoreRecordingsThanAllowed() throws Exception {
+        // Given
+        this.endpoint.start("test", null, null);
+
+        // When
+        assertThrows(InvalidEndpointRequestException.class, () -> this.endpoint.start("other", null, null));
+
+        // Then
+        assertEquals(1, this.endpoint.recordings().size());
+        assertTrue(this.endpoint.recordings().containsKey("test"));
+    }
+
+    @Test
+    void shouldLimitRecordingSize() throws Exception {
+        // When
+        this.endpoint.start("test", null, null);
+
+        // Then
+        final var recording = FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(candidate -> candidate.getName().equals("test"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(DataSize.ofMegabytes(10).toBytes(), recording.getMaxSize());
+    }
+
+    @Test
+    void shouldNotDumpClosedRecording() throws Exception {
+        // Given
+        this.endpoint.start("closed", null, null);
+        FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(candidate -> candidate.getName().equals("closed"))
+                .forEach(Recording::close);
+
+        // When
+        assertThrows(IOException.class, () -> this.endpoint.dump("closed"));
+    }
+
+    @Test
+    void shouldNotDumpOrStopMissingRecording() throws Exception {
+        // When
+        final var dump = this.endpoint.dump("test");
+        final var stopped = this.endpoint.stop("test");
+
+        // Then
+        assertNull(dump);
+        assertNull(stopped);
+    }
+}
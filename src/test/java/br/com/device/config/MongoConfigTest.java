@@ -0,0 +1,50 @@
+package br.com.device.config;
+
+import br.com.device.config.MongoConfig.StateReadingConverter;
+import br.com.device.config.MongoConfig.StateWritingConverter;
+import br.com.device.model.State;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static br.com.device.config.MongoConfig.MONGO_BULKHEAD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MongoConfigTest {
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void shouldWriteAndReadStateByName(final State state) {
+        // When
+        final var written = StateWritingConverter.INSTANCE.convert(state);
+        final var read = StateReadingConverter.INSTANCE.convert(written);
+
+        // Then
+        assertEquals(state.name(), written);
+        assertSame(state, read);
+    }
+
+    @Test
+    void shouldNotReadUnknownState() {
+        // When and then
+        final var exception = assertThrows(IllegalArgumentException.class, () -> StateReadingConverter.INSTANCE.convert("BROKEN"));
+        assertEquals("Unknown device state BROKEN", exception.getMessage());
+    }
+
+    @Test
+    void shouldLeaveReservedConnectionsOutOfTheBulkhead() {
+        // Given
+        final var customizer = new MongoConfig().mongoBulkheadCustomizer(100, 2);
+        final var bulkhead = BulkheadConfig.custom();
+
+        // When
+        customizer.customize(bulkhead);
+
+        // Then
+        assertEquals(MONGO_BULKHEAD, customizer.name());
+        assertEquals(98, bulkhead.build().getMaxConcurrentCalls());
+    }
+}
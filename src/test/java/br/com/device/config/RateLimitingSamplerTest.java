@@ -0,0 +1,73 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.opentelemetry.api.trace.SpanKind.SERVER;
+import static io.opentelemetry.sdk.trace.samplers.SamplingDecision.RECORD_AND_SAMPLE;
+import static io.opentelemetry.sdk.trace.samplers.SamplingDecision.RECORD_ONLY;
+import static java.util.List.of;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingSamplerTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String SPAN_ID = "b7ad6b7169203331";
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitingSampler sampler = new RateLimitingSampler(2, this.meterRegistry, this.clock::get);
+
+    @Test
+    void shouldSampleRootSpansUpToTheRatePerSecond() {
+        // When
+        final var first = this.sample(Context.root());
+        final var second = this.sample(Context.root());
+        final var third = this.sample(Context.root());
+        this.clock.addAndGet(1_000);
+        final var fourth = this.sample(Context.root());
+
+        // Then
+        assertEquals(RECORD_AND_SAMPLE, first.getDecision());
+        assertEquals(RECORD_AND_SAMPLE, second.getDecision());
+        assertEquals(RECORD_ONLY, third.getDecision());
+        assertEquals(Attributes.of(RateLimitingSampler.RECORD_ONLY, true), third.getAttributes());
+        assertEquals(RECORD_AND_SAMPLE, fourth.getDecision());
+        assertEquals(3, this.meterRegistry.counter("device.tracing.spans", "decision", "sampled").count());
+        assertEquals(1, this.meterRegistry.counter("device.tracing.spans", "decision", "record-only").count());
+        assertEquals("RateLimitingSampler{ratePerSecond=2}", this.sampler.getDescription());
+    }
+
+    @Test
+    void shouldFollowTheParentDecision() {
+        // Given
+        final var sampledParent = parent(TraceFlags.getSampled());
+        final var unsampledParent = parent(TraceFlags.getDefault());
+
+        // When
+        final var sampled = this.sample(sampledParent);
+        final var unsampled = this.sample(unsampledParent);
+
+        // Then
+        assertEquals(RECORD_AND_SAMPLE, sampled.getDecision());
+        assertEquals(RECORD_ONLY, unsampled.getDecision());
+        assertEquals(RECORD_AND_SAMPLE, this.sample(Context.root()).getDecision());
+    }
+
+    private SamplingResult sample(final Context context) {
+        return this.sampler.shouldSample(context, TRACE_ID, "span", SERVER, Attributes.empty(), of());
+    }
+
+    private static Context parent(final TraceFlags flags) {
+        return Context.root().with(Span.wrap(SpanContext.create(TRACE_ID, SPAN_ID, flags, TraceState.getDefault())));
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static br.com.device.config.SpanProcessorMetrics.PROCESSED_SPANS;
+import static br.com.device.config.SpanProcessorMetrics.QUEUE_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpanProcessorMetricsTest {
+
+    private static final AttributeKey<Boolean> DROPPED = AttributeKey.booleanKey("dropped");
+
+    private final SpanProcessorMetrics metrics = new SpanProcessorMetrics();
+    private final SdkMeterProvider meterProvider = SdkMeterProvider.builder().registerMetricReader(this.metrics).build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        this.meterProvider.close();
+    }
+
+    @Test
+    void shouldPublishBatchSpanProcessorMetrics() {
+        // Given
+        final var meter = this.meterProvider.get("io.opentelemetry.sdk.trace");
+        final var processed = meter.counterBuilder(PROCESSED_SPANS).build();
+        meter.gaugeBuilder(QUEUE_SIZE).ofLongs().buildWithCallback(measurement -> measurement.record(3));
+        this.metrics.bindTo(this.meterRegistry);
+
+        // When
+        processed.add(5, Attributes.of(DROPPED, false));
+        processed.add(2, Attributes.of(DROPPED, true));
+
+        // Then
+        assertEquals(5, this.meterRegistry.get("device.tracing.processed").tag("dropped", "false").functionCounter().count());
+        assertEquals(2, this.meterRegistry.get("device.tracing.processed").tag("dropped", "true").functionCounter().count());
+        assertEquals(3, this.meterRegistry.get("device.tracing.queue.size").gauge().value());
+        assertTrue(this.metrics.forceFlush().isSuccess());
+    }
+
+    @Test
+    void shouldSumOtherPointTypes() {
+        // Given
+        final var meter = this.meterProvider.get("test");
+        meter.counterBuilder("doubles").ofDoubles().build().add(1.5);
+        meter.histogramBuilder("histogram").build().record(4);
+
+        // When and then
+        assertEquals(1.5, this.metrics.value("doubles", Attributes.empty()));
+        assertEquals(0, this.metrics.value("histogram", Attributes.empty()));
+        assertEquals(0, this.metrics.value("missing", Attributes.empty()));
+    }
+
+    @Test
+    void shouldNotReadMetricsAfterShutdown() {
+        // Given
+        this.meterProvider.get("test").counterBuilder("longs").build().add(1);
+
+        // When
+        this.meterProvider.shutdown();
+
+        // Then
+        assertEquals(0, this.metrics.value("longs", Attributes.empty()));
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@AutoConfigureObservability
+@SpringBootTest(properties = "device.tracing.rate-per-second=0")
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class TracingConfigTest {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldOnlyExportFailedAndSlowSpansBeyondTheSamplingRate() {
+        // Given
+        this.tracer.nextSpan().name("ok").start().end();
+        this.tracer.nextSpan().name("failed").start().error(new IllegalStateException()).end();
+        this.tracer.nextSpan().name("server-error").start().tag("outcome", "SERVER_ERROR").end();
+        this.tracer.nextSpan().name("slow").start().end(Instant.now().plusSeconds(1).toEpochMilli(), MILLISECONDS);
+
+        // When
+        this.tracerProvider.forceFlush().join(10, SECONDS);
+
+        // Then
+        assertEquals(
+                Set.of("failed", "server-error", "slow"),
+                this.spanExporter.getFinishedSpanItems().stream().map(SpanData::getName).collect(toSet()));
+        assertEquals(1, this.meterRegistry.counter("device.tracing.exports", "result", "filtered").count());
+        assertTrue(this.meterRegistry.get("device.tracing.processed").tag("dropped", "false").functionCounter().count() >= 4);
+        assertEquals(0, this.meterRegistry.get("device.tracing.processed").tag("dropped", "true").functionCounter().count());
+        assertEquals(0, this.meterRegistry.get("device.tracing.queue.size").gauge().value());
+    }
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.device.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), this.meterRegistry);
+
+    @Test
+    void shouldReportVirtualThreadsBlockingInsideClassInitializers() throws Exception {
+        // Given
+        this.monitor.start();
+
+        // When
+        Thread.ofVirtual().start(SlowInitialization::touch).join();
+
+        // Then
+        final var timer = this.meterRegistry.get("device.virtual-threads.pinned").timer();
+        final var deadline = Instant.now().plusSeconds(10);
+        while (timer.count() == 0 && Instant.now().isBefore(deadline)) {
+            sleep(Duration.ofMillis(100));
+        }
+        this.monitor.stop();
+
+        assertEquals(1, timer.count());
+        assertTrue(timer.max(MILLISECONDS) >= 50);
+        assertFalse(this.monitor.isRunning());
+    }
+
+    /**
+     * Blocks while being initialized. Class initializers run under a native frame, so they still pin the carrier
+     * once synchronized blocks no longer do (JDK 24 and later).
+     */
+    private static final class SlowInitialization {
+
+        static {
+            sleep(Duration.ofMillis(50));
+        }
+
+        private static void touch() {
+            // Initializes the class
+        }
+    }
+
+    private static void sleep(final Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
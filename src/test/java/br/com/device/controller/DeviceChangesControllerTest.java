@@ -0,0 +1,96 @@
+package br.com.device.controller;
+
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import br.com.device.service.DeviceChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "device.changes.enabled=true")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class DeviceChangesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DeviceChangeFeed feed;
+
+    @Test
+    void shouldStreamMatchingChanges() throws Exception {
+        // Given
+        final var result = this.mockMvc.perform(get("/devices/changes")
+                        .with(jwt())
+                        .header(ACCEPT, TEXT_EVENT_STREAM_VALUE)
+                        .queryParam("brand", "Samsung"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final var updated = randomUUID();
+        final var deleted = randomUUID();
+
+        // When
+        this.feed.publish(new DeviceChangeData("update", randomUUID(), DeviceData.builder().brand("Apple").build()));
+        this.feed.publish(new DeviceChangeData("update", updated, DeviceData.builder().brand("Samsung").build()));
+        this.feed.publish(new DeviceChangeData("delete", deleted, null));
+
+        // Then
+        final var body = awaitBody(result, deleted.toString());
+        assertTrue(body.contains("event:update"));
+        assertTrue(body.contains(updated.toString()));
+        assertTrue(body.contains("event:delete"));
+        assertEquals(2, body.split("event:").length - 1);
+    }
+
+    @Test
+    void shouldCancelSubscriptionWhenStreamCompletes() throws Exception {
+        // Given
+        final var result = this.mockMvc.perform(get("/devices/changes")
+                        .with(jwt())
+                        .header(ACCEPT, TEXT_EVENT_STREAM_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final var delivered = new CountDownLatch(1);
+        final var subscription = this.feed.subscribe(null, _ -> delivered.countDown(), () -> {
+        });
+
+        // When
+        result.getRequest().getAsyncContext().complete();
+        this.feed.publish(new DeviceChangeData("delete", randomUUID(), null));
+
+        // Then
+        assertTrue(delivered.await(5, SECONDS));
+        assertFalse(result.getResponse().getContentAsString().contains("event:"));
+        subscription.cancel();
+    }
+
+    private static String awaitBody(final MvcResult result, final String expected) throws Exception {
+        final var deadline = System.nanoTime() + SECONDS.toNanos(10);
+        var body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains(expected));
+        return body;
+    }
+}
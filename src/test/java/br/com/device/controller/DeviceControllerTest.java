@@ -2,11 +2,17 @@ package br.com.device.controller;
 
 import br.com.device.config.MongoPopulatorConfig;
 import br.com.device.dto.DeviceData;
+import br.com.device.dto.DeviceLookupData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.model.Device;
 import br.com.device.repository.DeviceRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -15,22 +21,34 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static br.com.device.model.State.AVAILABLE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Instant.now;
+import static java.util.Base64.getUrlEncoder;
+import static java.util.List.of;
 import static java.util.UUID.fromString;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.http.HttpHeaders.ACCEPT;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -87,6 +105,104 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.errors[*]").value(containsInAnyOrder("Device name is required", "Device state is required")));
     }
 
+    @Test
+    void shouldCreateAll() throws Exception {
+        // Given
+        final var devices = of(
+                DeviceData.builder().name("Zenfone").brand("Asus").state("available").build(),
+                DeviceData.builder().brand("Nokia").state("available").build(),
+                DeviceData.builder().name("Pixel").brand("Google").state("in-use").build()
+        );
+
+        // When and then
+        this.mockMvc.perform(post("/devices/batch")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(this.mapper.writeValueAsString(devices)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].device.id").isNotEmpty())
+                .andExpect(jsonPath("$[0].device.name").value("Zenfone"))
+                .andExpect(jsonPath("$[0].device.creationTime").isNotEmpty())
+                .andExpect(jsonPath("$[0].errors").isEmpty())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].device").isEmpty())
+                .andExpect(jsonPath("$[1].errors[0]").value("Device name is required"))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].device.name").value("Pixel"))
+                .andExpect(jsonPath("$[2].device.state").value("in-use"));
+
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(6));
+    }
+
+    @Test
+    void shouldLookup() throws Exception {
+        // Given
+        final var request = new DeviceLookupData(of(
+                fromString("a5225c14-29b4-4b42-bf5b-a09b257b57fb"),
+                fromString("28c0cf3c-c0c3-465e-9e65-8a24a06b4cab"),
+                fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e")));
+
+        // When and then
+        this.mockMvc.perform(post("/devices/lookup")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(this.mapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices[*].name").value(contains("Galaxy", "iPhone")))
+                .andExpect(jsonPath("$.missing").value(contains("28c0cf3c-c0c3-465e-9e65-8a24a06b4cab")));
+    }
+
+    @Test
+    void shouldNotLookupWhenIdsAreMissing() throws Exception {
+        // When and then
+        this.mockMvc.perform(post("/devices/lookup")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Device ids are required"));
+    }
+
+    @Test
+    void shouldImportAll() throws Exception {
+        // Given
+        final var content = String.join("\n",
+                this.mapper.writeValueAsString(DeviceData.builder().name("Zenfone").brand("Asus").state("available").build()),
+                "",
+                this.mapper.writeValueAsString(DeviceData.builder().name("Pixel").state("in-use").build()),
+                "{not json",
+                this.mapper.writeValueAsString(DeviceData.builder().name("Xperia").brand("Sony").state("inactive").build()));
+
+        // When and then
+        this.mockMvc.perform(post("/devices/import")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(content))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejections[0].line").value(3))
+                .andExpect(jsonPath("$.rejections[0].errors[0]").value("Device brand is required"))
+                .andExpect(jsonPath("$.rejections[1].line").value(4))
+                .andExpect(jsonPath("$.rejections[1].errors[0]").value("Device is malformed"));
+
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(6));
+    }
+
     @Test
     void shouldReadAll() throws Exception {
         // When and then
@@ -154,6 +270,226 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.content[*].creationTime").value(containsInAnyOrder("2025-03-15T21:50:41.159Z", "2025-03-15T21:52:06.527Z")));
     }
 
+    @Test
+    void shouldReadAllProjected() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("state", "available")
+                        .queryParam("fields", "id,state"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.page.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].id").value(containsInAnyOrder("2db19102-8bbc-43b6-afd2-993263ae6d1e", "0fa8debc-bd30-4bc1-8737-f8eb42ca88a8")))
+                .andExpect(jsonPath("$.content[*].state").value(containsInAnyOrder("available", "available")))
+                .andExpect(jsonPath("$.content[0].name").doesNotExist())
+                .andExpect(jsonPath("$.content[0].brand").doesNotExist())
+                .andExpect(jsonPath("$.content[0].creationTime").doesNotExist());
+    }
+
+    @Test
+    void shouldNotReadAllWhenFieldsAreInvalid() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("fields", "state,owner"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Devices cannot be projected on owner"));
+    }
+
+    @Test
+    void shouldReadAllWithoutCount() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("count", "none")
+                        .queryParam("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.number").value(0))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.page").doesNotExist());
+    }
+
+    @Test
+    void shouldReadAllWithEstimatedCount() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("count", "estimated")
+                        .queryParam("state", "available"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.page.totalElements").value(2));
+    }
+
+    @Test
+    void shouldReadAllByCursor() throws Exception {
+        // Given
+        final var firstPage = this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("cursor", "")
+                        .queryParam("size", "3")
+                        .queryParam("sort", "creationTime,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].name").value("Redmi"))
+                .andExpect(jsonPath("$.content[1].name").value("Edge"))
+                .andExpect(jsonPath("$.content[2].name").value("Galaxy"))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn();
+        final var next = this.mapper.readTree(firstPage.getResponse().getContentAsString()).get("next").asText();
+
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("cursor", next)
+                        .queryParam("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("iPhone"))
+                .andExpect(jsonPath("$.next").isEmpty());
+    }
+
+    @Test
+    void shouldReadAllByCursorProjected() throws Exception {
+        // Given
+        final var firstPage = this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("cursor", "")
+                        .queryParam("size", "3")
+                        .queryParam("sort", "creationTime,desc")
+                        .queryParam("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Redmi", "Edge", "Galaxy")))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].creationTime").doesNotExist())
+                .andReturn();
+        final var next = this.mapper.readTree(firstPage.getResponse().getContentAsString()).get("next").asText();
+
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("cursor", next)
+                        .queryParam("size", "3")
+                        .queryParam("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("iPhone")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"name,asc", "name,desc"})
+    void shouldReadAllByCursorWhenSortValueIsMissing(final String sort) throws Exception {
+        // Given
+        this.repository.save(Device.builder().brand("Nokia").state(AVAILABLE).build());
+        final var names = new ArrayList<String>();
+        var cursor = "";
+
+        // When
+        do {
+            final var page = this.mockMvc.perform(get("/devices")
+                            .with(jwt())
+                            .header(ACCEPT, APPLICATION_JSON_VALUE)
+                            .queryParam("cursor", cursor)
+                            .queryParam("size", "1")
+                            .queryParam("sort", sort))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            final var body = this.mapper.readTree(page.getResponse().getContentAsString());
+            names.add(body.at("/content/0/name").asText(null));
+            cursor = body.at("/next").asText("");
+        } while (!cursor.isEmpty());
+
+        // Then
+        final var expected = new ArrayList<>(Arrays.asList(null, "Edge", "Galaxy", "Redmi", "iPhone"));
+        if (sort.endsWith("desc")) Collections.reverse(expected);
+        assertEquals(expected, names);
+    }
+
+    @Test
+    void shouldNotReadAllByCursorWhenCursorIsInvalid() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("cursor", "invalid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Cursor is invalid"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"version", "_class", "$where", "id.x"})
+    void shouldNotReadAllByCursorWhenSortKeyIsTampered(final String property) throws Exception {
+        // Given
+        final var token = "ASC|" + property + "|2db19102-8bbc-43b6-afd2-993263ae6d1e|1";
+        final var cursor = getUrlEncoder().withoutPadding().encodeToString(token.getBytes(UTF_8));
+
+        // When and then
+        this.mockMvc.perform(get("/devices")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("cursor", cursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Cursor is invalid"));
+    }
+
+    @Test
+    void shouldNotStreamChangesWhenDisabled() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices/changes")
+                        .with(jwt())
+                        .header(ACCEPT, TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReadStats() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices/stats")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.byState.available").value(2))
+                .andExpect(jsonPath("$.byState.in-use").value(1))
+                .andExpect(jsonPath("$.byState.inactive").value(1))
+                .andExpect(jsonPath("$.byBrand.Samsung.in-use").value(1));
+    }
+
+    @Test
+    void shouldExport() throws Exception {
+        // Given
+        final var result = this.mockMvc.perform(get("/devices/export")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_NDJSON_VALUE)
+                        .queryParam("state", "available"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_NDJSON_VALUE));
+
+        // Then
+        final var devices = result.getResponse()
+                .getContentAsString()
+                .lines()
+                .map(line -> assertDoesNotThrow(() -> this.mapper.readValue(line, DeviceData.class)))
+                .toList();
+        assertEquals(2, devices.size());
+        assertTrue(devices.stream().allMatch(device -> "available".equals(device.state())));
+    }
+
     @Test
     void shouldReadOne() throws Exception {
         // When and then
@@ -161,6 +497,7 @@ class DeviceControllerTest {
                         .with(jwt())
                         .header(ACCEPT, APPLICATION_JSON_VALUE))
                 .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, "\"0\""))
                 .andExpect(jsonPath("$.id").value("8a37328e-8569-4810-af11-2e85cc67cbcb"))
                 .andExpect(jsonPath("$.name").value("Edge"))
                 .andExpect(jsonPath("$.brand").value("Motorola"))
@@ -168,6 +505,52 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.creationTime").value("2025-03-15T21:51:34.789Z"));
     }
 
+    @Test
+    void shouldReadOneProjected() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices/8a37328e-8569-4810-af11-2e85cc67cbcb")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("fields", "state"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, "\"0-" + Integer.toHexString("state".hashCode()) + "\""))
+                .andExpect(jsonPath("$.state").value("inactive"))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.name").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenVersionDidNotChange() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices/8a37328e-8569-4810-af11-2e85cc67cbcb")
+                        .with(jwt())
+                        .header(IF_NONE_MATCH, "\"0\"")
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, "\"0\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldTagProjectionsByTheirSortedFields() throws Exception {
+        // When and then
+        this.mockMvc.perform(get("/devices/8a37328e-8569-4810-af11-2e85cc67cbcb")
+                        .with(jwt())
+                        .header(IF_NONE_MATCH, "\"0\"")
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("fields", "state,name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, "\"0-" + Integer.toHexString("name,state".hashCode()) + "\""))
+                .andExpect(jsonPath("$.name").value("Edge"));
+
+        this.mockMvc.perform(get("/devices/8a37328e-8569-4810-af11-2e85cc67cbcb")
+                        .with(jwt())
+                        .header(IF_NONE_MATCH, "\"0-" + Integer.toHexString("name,state".hashCode()) + "\"")
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .queryParam("fields", "name,state"))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void shouldReturnNotFoundWhenDeviceDoesNotExist() throws Exception {
         // When and then
@@ -191,10 +574,12 @@ class DeviceControllerTest {
         // When and then
         this.mockMvc.perform(put("/devices/2db19102-8bbc-43b6-afd2-993263ae6d1e")
                         .with(jwt())
+                        .header(IF_MATCH, "\"0\"")
                         .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
                         .header(ACCEPT, APPLICATION_JSON_VALUE)
                         .content(this.mapper.writeValueAsString(device)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, "\"1\""))
                 .andExpect(jsonPath("$.id").value("2db19102-8bbc-43b6-afd2-993263ae6d1e"))
                 .andExpect(jsonPath("$.name").value("iPhone Updated"))
                 .andExpect(jsonPath("$.brand").value("Apple Updated"))
@@ -202,6 +587,30 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.creationTime").value("2025-03-15T21:50:41.159Z"));
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"\"1\"", "W/\"0\"", "\"iPhone\""})
+    void shouldNotUpdateWhenVersionDoesNotMatch(final String ifMatch) throws Exception {
+        // Given
+        final var device = DeviceData.builder()
+                .name("iPhone Updated")
+                .brand("Apple Updated")
+                .state("in-use")
+                .build();
+
+        // When
+        this.mockMvc.perform(put("/devices/2db19102-8bbc-43b6-afd2-993263ae6d1e")
+                        .with(jwt())
+                        .header(IF_MATCH, ifMatch)
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(this.mapper.writeValueAsString(device)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errors[0]").value("Device version does not match"));
+
+        // Then
+        assertEquals("iPhone", this.repository.findById(fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e")).orElseThrow().getName());
+    }
+
     @Test
     void shouldNotUpdateWhenRequiredFieldsAreMissing() throws Exception {
         // Given
@@ -299,13 +708,81 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.errors[0]").value("Name or brand cannot be changed while device is in use"));
     }
 
+    @Test
+    void shouldUpdateStateByFilter() throws Exception {
+        // Given
+        final var change = StateChangeData.builder()
+                .filter(DeviceData.builder().brand("Apple").build())
+                .state("inactive")
+                .build();
+
+        // When and then
+        this.mockMvc.perform(patch("/devices/state")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(this.mapper.writeValueAsString(change)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1))
+                .andExpect(jsonPath("$.modified").value(1));
+
+        this.mockMvc.perform(get("/devices/2db19102-8bbc-43b6-afd2-993263ae6d1e")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("inactive"));
+    }
+
+    @Test
+    void shouldUpdateStateByIds() throws Exception {
+        // Given
+        final var change = StateChangeData.builder()
+                .ids(of(fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e"), fromString("a5225c14-29b4-4b42-bf5b-a09b257b57fb")))
+                .state("available")
+                .build();
+
+        // When and then
+        this.mockMvc.perform(patch("/devices/state")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(this.mapper.writeValueAsString(change)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(2))
+                .andExpect(jsonPath("$.modified").value(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"state\": \"inactive\"}",
+            "{\"filter\": {}, \"state\": \"inactive\"}",
+            "{\"ids\": [], \"state\": \"inactive\"}",
+            "{\"ids\": [], \"filter\": {}, \"state\": \"inactive\"}"
+    })
+    void shouldNotUpdateStateWhenDevicesAreNotSelected(final String change) throws Exception {
+        // When and then
+        this.mockMvc.perform(patch("/devices/state")
+                        .with(jwt())
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .header(ACCEPT, APPLICATION_JSON_VALUE)
+                        .content(change))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Either ids or filter is required"));
+
+        this.mockMvc.perform(get("/devices/2db19102-8bbc-43b6-afd2-993263ae6d1e")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("available"));
+    }
+
     @Test
     void shouldDelete() throws Exception {
         // Given
         final var id = fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e");
 
         // When
-        this.mockMvc.perform(delete("/devices/{id}", id).with(jwt()))
+        this.mockMvc.perform(delete("/devices/{id}", id).with(jwt()).header(IF_MATCH, "*"))
                 .andExpect(status().isNoContent());
 
         // Then
@@ -347,6 +824,20 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.errors[*]").value(containsInAnyOrder("Service Unavailable")));
     }
 
+    @Test
+    void shouldReturnServiceUnavailableWhenBulkheadIsFull() throws Exception {
+        // Given
+        doThrow(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("mongo-bulkhead")))
+                .when(this.repository).findById(any());
+
+        // When and then
+        this.mockMvc.perform(get("/devices/8a37328e-8569-4810-af11-2e85cc67cbcb")
+                        .with(jwt())
+                        .header(ACCEPT, APPLICATION_JSON_VALUE))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errors[*]").value(containsInAnyOrder("Service Unavailable")));
+    }
+
     @Test
     void shouldReturnUnauthorizedWhenAuthorizationIsNotPresent() throws Exception {
         // Given
@@ -365,4 +856,13 @@ class DeviceControllerTest {
                         .content(this.mapper.writeValueAsString(device)))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void shouldReturnUnauthorizedWhenFlightRecorderIsRequestedWithoutAuthorization() throws Exception {
+        // When and then
+        this.mockMvc.perform(post("/actuator/flightrecorder/test")
+                        .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+    }
 }
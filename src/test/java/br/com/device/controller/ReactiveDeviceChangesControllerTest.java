@@ -0,0 +1,87 @@
+package br.com.device.controller;
+
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import br.com.device.service.DeviceChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@ActiveProfiles("reactive")
+@SpringBootTest(properties = "device.changes.enabled=true")
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class ReactiveDeviceChangesControllerTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DeviceChangeFeed feed;
+
+    @MockitoBean
+    private ReactiveJwtDecoder jwtDecoder;
+
+    @Test
+    void shouldStreamMatchingChanges() throws InterruptedException {
+        // Given
+        final var updated = randomUUID();
+        final var deleted = randomUUID();
+        final var events = WebTestClient.bindToApplicationContext(this.context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .mutateWith(mockJwt())
+                .get()
+                .uri("/devices/changes?brand=Samsung")
+                .accept(TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<DeviceChangeData>>() {
+                })
+                .getResponseBody();
+
+        // When
+        final var publisher = Thread.ofVirtual().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                this.feed.publish(new DeviceChangeData("update", randomUUID(), DeviceData.builder().brand("Apple").build()));
+                this.feed.publish(new DeviceChangeData("update", updated, DeviceData.builder().brand("Samsung").build()));
+                this.feed.publish(new DeviceChangeData("delete", deleted, null));
+                try {
+                    Thread.sleep(50);
+                } catch (final InterruptedException exception) {
+                    return;
+                }
+            }
+        });
+        final var received = events.take(4).collectList().block(Duration.ofSeconds(10));
+        publisher.interrupt();
+        publisher.join();
+
+        // Then
+        assertNotNull(received);
+        assertEquals(4, received.size());
+        for (final var event : received) {
+            assertNotNull(event.data());
+            assertEquals(event.event(), event.data().type());
+            assertTrue(Set.of(updated, deleted).contains(event.data().id()));
+        }
+    }
+}
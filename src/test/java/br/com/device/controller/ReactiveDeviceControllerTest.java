@@ -0,0 +1,543 @@
+package br.com.device.controller;
+
+import br.com.device.dto.CursorPageData;
+import br.com.device.dto.DeviceData;
+import br.com.device.dto.DeviceLookupData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceRepository;
+import br.com.device.service.DeviceStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static br.com.device.model.State.AVAILABLE;
+import static br.com.device.model.State.INACTIVE;
+import static br.com.device.model.State.IN_USE;
+import static java.time.Instant.now;
+import static java.util.List.of;
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class ReactiveDeviceControllerTest {
+
+    private static final UUID AVAILABLE_ID = UUID.fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e");
+    private static final UUID IN_USE_ID = UUID.fromString("a5225c14-29b4-4b42-bf5b-a09b257b57fb");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private DeviceStatsService statsService;
+
+    @MockitoBean
+    private ReactiveJwtDecoder jwtDecoder;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.repository.saveAll(of(
+                Device.builder().id(AVAILABLE_ID).name("iPhone").brand("Apple").state(AVAILABLE).creationTime(now().minusSeconds(3)).build(),
+                Device.builder().id(IN_USE_ID).name("Galaxy").brand("Samsung").state(IN_USE).creationTime(now().minusSeconds(2)).build(),
+                Device.builder().id(randomUUID()).name("Edge").brand("Motorola").state(INACTIVE).creationTime(now().minusSeconds(1)).build()));
+        this.client = WebTestClient.bindToApplicationContext(this.context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .mutateWith(mockJwt());
+    }
+
+    @Test
+    void shouldCreate() {
+        // Given
+        final var device = DeviceData.builder()
+                .name("Zenfone")
+                .brand("Asus")
+                .state("available")
+                .build();
+
+        // When and then
+        this.client.post()
+                .uri("/devices")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.name").isEqualTo("Zenfone")
+                .jsonPath("$.state").isEqualTo("available")
+                .jsonPath("$.creationTime").isNotEmpty();
+    }
+
+    @Test
+    void shouldNotCreateWhenRequiredFieldsAreMissing() {
+        // Given
+        final var device = DeviceData.builder()
+                .brand("Asus")
+                .build();
+
+        // When and then
+        this.client.post()
+                .uri("/devices")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors.length()").isEqualTo(2);
+    }
+
+    @Test
+    void shouldReadAll() {
+        // When and then
+        this.client.get()
+                .uri("/devices?brand=Apple")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].name").isEqualTo("iPhone")
+                .jsonPath("$.page.totalElements").isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadAllWithoutCount() {
+        // When and then
+        this.client.get()
+                .uri("/devices?count=none&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.hasNext").isEqualTo(true);
+    }
+
+    @Test
+    void shouldReadAllByCursor() {
+        // When
+        final var page = this.client.get()
+                .uri("/devices?cursor=&size=2&sort=creationTime,asc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<CursorPageData<DeviceData>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertNotNull(page);
+        assertEquals(2, page.content().size());
+        assertNotNull(page.next());
+        this.client.get()
+                .uri("/devices?cursor={cursor}&size=2", page.next())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].name").isEqualTo("Edge")
+                .jsonPath("$.next").doesNotExist();
+    }
+
+    @Test
+    void shouldNotReadAllByCursorWhenCursorIsInvalid() {
+        // When and then
+        this.client.get()
+                .uri("/devices?cursor=invalid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("Cursor is invalid");
+    }
+
+    @Test
+    void shouldExport() {
+        // When
+        final var devices = this.client.get()
+                .uri("/devices/export?state=available")
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(DeviceData.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Then
+        assertNotNull(devices);
+        assertEquals(1, devices.size());
+        assertEquals(AVAILABLE_ID, devices.getFirst().id());
+    }
+
+    @Test
+    void shouldReadOne() {
+        // When and then
+        this.client.get()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("iPhone");
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenDeviceDoesNotExist() {
+        // When and then
+        this.client.get()
+                .uri("/devices/{id}", randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldUpdate() {
+        // Given
+        final var device = DeviceData.builder()
+                .name("iPhone 16")
+                .brand("Apple")
+                .state("inactive")
+                .build();
+
+        // When and then
+        this.client.put()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("iPhone 16")
+                .jsonPath("$.state").isEqualTo("inactive");
+    }
+
+    @Test
+    void shouldNotPartiallyUpdateNameWhenDeviceIsInUse() {
+        // Given
+        final var device = DeviceData.builder()
+                .name("Galaxy S25")
+                .build();
+
+        // When and then
+        this.client.patch()
+                .uri("/devices/{id}", IN_USE_ID)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("Name or brand cannot be changed while device is in use");
+    }
+
+    @Test
+    void shouldNotPartiallyUpdateWhenDeviceDoesNotExist() {
+        // Given
+        final var device = DeviceData.builder()
+                .state("inactive")
+                .build();
+
+        // When and then
+        this.client.patch()
+                .uri("/devices/{id}", randomUUID())
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldUpdateStateByIds() {
+        // Given
+        final var change = StateChangeData.builder()
+                .ids(of(AVAILABLE_ID, IN_USE_ID))
+                .state("inactive")
+                .build();
+
+        // When and then
+        this.client.patch()
+                .uri("/devices/state")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(change)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.matched").isEqualTo(2)
+                .jsonPath("$.modified").isEqualTo(2);
+    }
+
+    @Test
+    void shouldDelete() {
+        // When
+        this.client.delete()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        // Then
+        assertFalse(this.repository.existsById(AVAILABLE_ID));
+    }
+
+    @Test
+    void shouldNotDeleteWhenDeviceIsInUse() {
+        // When and then
+        this.client.delete()
+                .uri("/devices/{id}", IN_USE_ID)
+                .exchange()
+                .expectStatus().isBadRequest();
+        assertTrue(this.repository.existsById(IN_USE_ID));
+    }
+
+    @Test
+    void shouldReadAllProjected() {
+        // When and then
+        this.client.get()
+                .uri("/devices?brand=Apple&fields=name")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo("iPhone")
+                .jsonPath("$.content[0].id").doesNotExist()
+                .jsonPath("$.content[0].state").doesNotExist();
+    }
+
+    @Test
+    void shouldNotReadAllWhenProjectionIsInvalid() {
+        // When and then
+        this.client.get()
+                .uri("/devices?fields=state,owner")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("Devices cannot be projected on owner");
+    }
+
+    @Test
+    void shouldReadAllWithEstimatedCount() {
+        // When and then
+        this.client.get()
+                .uri("/devices?count=estimated&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.page.totalElements").isEqualTo(3);
+    }
+
+    @Test
+    void shouldReadAllByBrandWithEstimatedCount() {
+        // When and then
+        this.client.get()
+                .uri("/devices?count=estimated&brand=Samsung")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo("Galaxy")
+                .jsonPath("$.page.totalElements").isEqualTo(1);
+    }
+
+    @Test
+    void shouldLookup() {
+        // Given
+        final var missing = randomUUID();
+
+        // When and then
+        this.client.post()
+                .uri("/devices/lookup")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new DeviceLookupData(of(missing, AVAILABLE_ID, AVAILABLE_ID)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.devices.length()").isEqualTo(1)
+                .jsonPath("$.devices[0].id").isEqualTo(AVAILABLE_ID.toString())
+                .jsonPath("$.missing.length()").isEqualTo(1)
+                .jsonPath("$.missing[0]").isEqualTo(missing.toString());
+    }
+
+    @Test
+    void shouldNotLookupMoreDevicesThanAllowed() {
+        // Given
+        final var ids = Stream.generate(UUID::randomUUID).limit(1001).toList();
+
+        // When and then
+        this.client.post()
+                .uri("/devices/lookup")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new DeviceLookupData(ids))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("Lookup must not have more than 1000 devices");
+    }
+
+    @Test
+    void shouldReadStats() {
+        // Given
+        this.statsService.reconcile();
+
+        // When and then
+        this.client.get()
+                .uri("/devices/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(3)
+                .jsonPath("$.byBrand.Samsung.in-use").isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotStreamChangesWhenDisabled() {
+        // When and then
+        this.client.get()
+                .uri("/devices/changes")
+                .accept(TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReadOneTaggedWithVersion() {
+        // Given
+        final var etag = this.client.get()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(ETAG)
+                .returnResult(DeviceData.class)
+                .getResponseHeaders()
+                .getETag();
+
+        // When and then
+        this.client.get()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .header(IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void shouldTagProjectionsApartFromTheWholeDevice() {
+        // Given
+        final var etag = this.client.get()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(DeviceData.class)
+                .getResponseHeaders()
+                .getETag();
+
+        // When and then
+        this.client.get()
+                .uri("/devices/{id}?fields=name", AVAILABLE_ID)
+                .header(IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(ETAG, value -> assertNotEquals(etag, value))
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("iPhone")
+                .jsonPath("$.state").doesNotExist();
+    }
+
+    @Test
+    void shouldNotUpdateWhenVersionDoesNotMatch() {
+        // Given
+        final var device = DeviceData.builder()
+                .state("inactive")
+                .build();
+
+        // When and then
+        this.client.patch()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .header(IF_MATCH, "\"99\"")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isEqualTo(PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("Device version does not match");
+        assertEquals(AVAILABLE, this.repository.findById(AVAILABLE_ID).orElseThrow().getState());
+    }
+
+    @Test
+    void shouldNotUpdateMissingDeviceWhenVersionIsExpected() {
+        // Given
+        final var device = DeviceData.builder()
+                .state("inactive")
+                .build();
+
+        // When and then
+        this.client.patch()
+                .uri("/devices/{id}", randomUUID())
+                .header(IF_MATCH, "\"0\"")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(device)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldNotDeleteInUseDeviceWhenVersionMatches() {
+        // When and then
+        this.client.delete()
+                .uri("/devices/{id}", IN_USE_ID)
+                .header(IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("In use device cannot be removed");
+        assertTrue(this.repository.existsById(IN_USE_ID));
+    }
+
+    @Test
+    void shouldDeleteWhenVersionMatches() {
+        // When
+        this.client.delete()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .header(IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        // Then
+        assertFalse(this.repository.existsById(AVAILABLE_ID));
+    }
+
+    @Test
+    void shouldReturnUnauthorizedWhenAuthorizationIsNotPresent() {
+        // When and then
+        WebTestClient.bindToApplicationContext(this.context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .get()
+                .uri("/devices/{id}", AVAILABLE_ID)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.device.dto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidStateValidatorTest {
+
+    private final ValidStateValidator validator = new ValidStateValidator();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"available", "in-use", "inactive"})
+    void shouldAcceptDisplayNames(final String state) {
+        // When and then
+        assertTrue(this.validator.isValid(state, null));
+    }
+
+    @Test
+    void shouldAcceptNull() {
+        // When and then
+        assertTrue(this.validator.isValid(null, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"AVAILABLE", "IN_USE", "in use", ""})
+    void shouldRejectOtherValues(final String state) {
+        // When and then
+        assertFalse(this.validator.isValid(state, null));
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.device.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StateTest {
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void shouldLookUpByDisplayNameAndName(final State state) {
+        // When and then
+        assertSame(state, State.fromDisplayName(state.getDisplayName()));
+        assertSame(state, State.fromName(state.name()));
+    }
+
+    @Test
+    void shouldNotLookUpUnknownOrNullNames() {
+        // When and then
+        assertNull(State.fromDisplayName("IN_USE"));
+        assertNull(State.fromDisplayName(null));
+        assertNull(State.fromName("in-use"));
+        assertNull(State.fromName(null));
+    }
+}
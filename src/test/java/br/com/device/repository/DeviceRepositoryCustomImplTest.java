@@ -0,0 +1,69 @@
+package br.com.device.repository;
+
+import br.com.device.config.MongoPopulatorConfig;
+import br.com.device.model.Device;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Map;
+
+import static br.com.device.model.State.AVAILABLE;
+import static br.com.device.model.State.INACTIVE;
+import static br.com.device.model.State.IN_USE;
+import static br.com.device.repository.DeviceRepositoryCustomImpl.DUPLICATE_DEVICE_MESSAGE;
+import static java.util.List.of;
+import static java.util.UUID.fromString;
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@SpringBootTest
+@Import(MongoPopulatorConfig.class)
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class DeviceRepositoryCustomImplTest {
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Test
+    void shouldNotExposeDriverMessageWhenInsertingDuplicateDevice() {
+        // Given
+        final var existing = Device.builder().id(fromString("2db19102-8bbc-43b6-afd2-993263ae6d1e")).name("iPhone").brand("Apple").state(AVAILABLE).build();
+        final var created = Device.builder().id(randomUUID()).name("Zenfone").brand("Asus").state(AVAILABLE).build();
+
+        // When
+        final var failures = this.repository.insertUnordered(of(created, existing));
+
+        // Then
+        assertEquals(Map.of(1, DUPLICATE_DEVICE_MESSAGE), failures);
+        assertEquals(5, this.repository.count());
+    }
+
+    @Test
+    void shouldNotCountDevicesWithoutKnownBrandAndState() {
+        // Given
+        final var collection = this.operations.getCollectionName(Device.class);
+        this.operations.insert(new Document("_id", randomUUID().toString()).append("name", "Unbranded").append("state", "AVAILABLE"), collection);
+        this.operations.insert(new Document("_id", randomUUID().toString()).append("name", "Lumia").append("brand", "Nokia").append("state", "BROKEN"), collection);
+        this.operations.insert(new Document("_id", randomUUID().toString()).append("name", "Xperia").append("brand", "Sony").append("state", 1), collection);
+
+        // When
+        final var counts = this.repository.countByBrandAndState();
+
+        // Then
+        assertEquals(Map.of(
+                "Apple", Map.of(AVAILABLE, 1L),
+                "Samsung", Map.of(IN_USE, 1L),
+                "Motorola", Map.of(INACTIVE, 1L),
+                "Xiaomi", Map.of(AVAILABLE, 1L)
+        ), counts);
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.device.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedDeviceIdGeneratorTest {
+
+    private final TimeOrderedDeviceIdGenerator generator = new TimeOrderedDeviceIdGenerator();
+
+    @Test
+    void shouldGenerateVersion7Identifiers() {
+        // Given
+        final var before = currentTimeMillis();
+
+        // When
+        final var id = this.generator.generate();
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        final var timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= currentTimeMillis() + 1);
+    }
+
+    @Test
+    void shouldGenerateIncreasingIdentifiers() {
+        // Given
+        var previous = this.generator.generate();
+
+        for (var index = 0; index < 100_000; index++) {
+            // When
+            final var id = this.generator.generate();
+
+            // Then
+            assertTrue(Long.compareUnsigned(id.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = id;
+        }
+    }
+
+    @Test
+    void shouldGenerateUniqueIdentifiersAcrossThreads() {
+        // Given
+        final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        IntStream.range(0, 200_000).parallel().forEach(_ -> ids.add(this.generator.generate()));
+
+        // Then
+        assertEquals(200_000, ids.size());
+    }
+}
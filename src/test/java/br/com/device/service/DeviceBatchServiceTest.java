@@ -0,0 +1,254 @@
+package br.com.device.service;
+
+import br.com.device.dto.DeviceData;
+import br.com.device.dto.ImportRejectionData;
+import br.com.device.dto.StateChangeData;
+import br.com.device.exception.BatchTooLargeException;
+import br.com.device.mapper.DeviceDataMapper;
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+
+import static br.com.device.config.CacheConfig.DEVICES_CACHE;
+import static br.com.device.model.State.AVAILABLE;
+import static br.com.device.model.State.INACTIVE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.nCopies;
+import static java.util.List.of;
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@SpringBootTest(properties = "device.batch.chunk-size=2")
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class DeviceBatchServiceTest {
+
+    @MockitoSpyBean
+    private DeviceDataMapper mapper;
+
+    @MockitoBean
+    private DeviceRepository repository;
+
+    @Autowired
+    private DeviceBatchService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void shouldSaveAllInChunks() {
+        // Given
+        final var devices = of(
+                DeviceData.builder().name("iPhone").brand("Apple").state("available").build(),
+                DeviceData.builder().name("Galaxy").brand("Samsung").state("in-use").build(),
+                DeviceData.builder().name("Edge").brand("Motorola").state("inactive").build()
+        );
+
+        when(this.repository.insertUnordered(any())).thenReturn(Map.of());
+
+        // When
+        final var result = this.service.saveAll(devices);
+
+        // Then
+        assertEquals(3, result.size());
+        assertTrue(result.stream().allMatch(item -> item.errors().isEmpty()));
+        assertEquals("Edge", result.get(2).device().name());
+
+        verify(this.mapper, times(3)).toEntity(any(DeviceData.class));
+        verify(this.repository, times(2)).insertUnordered(any());
+    }
+
+    @Test
+    void shouldReportInvalidAndFailedDevices() {
+        // Given
+        final var devices = of(
+                DeviceData.builder().name("iPhone").brand("Apple").state("available").build(),
+                DeviceData.builder().name("Galaxy").state("broken").build(),
+                DeviceData.builder().name("Edge").brand("Motorola").state("inactive").build()
+        );
+
+        when(this.repository.insertUnordered(any())).thenReturn(Map.of(1, "duplicate key"));
+
+        // When
+        final var result = this.service.saveAll(devices);
+
+        // Then
+        assertNotNull(result.get(0).device());
+        assertNull(result.get(1).device());
+        assertEquals(2, result.get(1).errors().size());
+        assertNull(result.get(2).device());
+        assertEquals(of("duplicate key"), result.get(2).errors());
+
+        verify(this.mapper, times(2)).toEntity(any(DeviceData.class));
+        verify(this.mapper).toDTO(any(Device.class));
+        verify(this.repository).insertUnordered(any());
+    }
+
+    @Test
+    void shouldImportAllInChunks() throws Exception {
+        // Given
+        final var line = "{\"name\":\"iPhone\",\"brand\":\"Apple\",\"state\":\"available\"}";
+        final var content = String.join("\n", nCopies(5, line));
+
+        when(this.repository.insertUnordered(any())).thenAnswer(invocation -> invocation.getArgument(0, List.class).size() == 2
+                ? Map.of(1, "duplicate key")
+                : Map.of());
+
+        // When
+        final var result = this.service.importAll(new ByteArrayInputStream(content.getBytes(UTF_8)));
+
+        // Then
+        assertEquals(3, result.inserted());
+        assertEquals(2, result.rejected());
+        assertEquals(of(2L, 4L), result.rejections().stream().map(ImportRejectionData::line).toList());
+
+        verify(this.mapper, times(5)).toEntity(any(DeviceData.class));
+        verify(this.repository, times(3)).insertUnordered(any());
+    }
+
+    @Test
+    void shouldUpdateState() {
+        // Given
+        final var change = StateChangeData.builder()
+                .filter(DeviceData.builder().brand("Apple").build())
+                .state("inactive")
+                .build();
+
+        when(this.repository.updateState(any(), any(), any())).thenReturn(UpdateResult.acknowledged(3, 2L, null));
+
+        // When
+        final var result = this.service.updateState(change);
+
+        // Then
+        assertEquals(3, result.matched());
+        assertEquals(2, result.modified());
+
+        verify(this.repository).updateState(isNull(), eq(Device.builder().brand("Apple").build()), eq(INACTIVE));
+    }
+
+    @Test
+    void shouldEvictOnlyChangedDevicesWhenUpdatingStateByIds() {
+        // Given
+        final var changed = randomUUID();
+        final var untouched = randomUUID();
+        final var cache = this.cacheManager.getCache(DEVICES_CACHE);
+        cache.put(changed, DeviceData.builder().id(changed).name("iPhone").build());
+        cache.put(untouched, DeviceData.builder().id(untouched).name("Galaxy").build());
+        final var change = StateChangeData.builder()
+                .ids(of(changed))
+                .state("inactive")
+                .build();
+
+        when(this.repository.updateState(any(), any(), any())).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        this.service.updateState(change);
+
+        // Then
+        assertNull(cache.get(changed));
+        assertNotNull(cache.get(untouched));
+    }
+
+    @Test
+    void shouldClearCacheWhenUpdatingStateByFilter() {
+        // Given
+        final var id = randomUUID();
+        final var cache = this.cacheManager.getCache(DEVICES_CACHE);
+        cache.put(id, DeviceData.builder().id(id).name("iPhone").build());
+        final var change = StateChangeData.builder()
+                .filter(DeviceData.builder().brand("Apple").build())
+                .state("inactive")
+                .build();
+
+        when(this.repository.updateState(any(), any(), any())).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        this.service.updateState(change);
+
+        // Then
+        assertNull(cache.get(id));
+    }
+
+    @Test
+    void shouldKeepCacheWhenStateUpdateChangesNothing() {
+        // Given
+        final var id = randomUUID();
+        final var cache = this.cacheManager.getCache(DEVICES_CACHE);
+        cache.put(id, DeviceData.builder().id(id).name("iPhone").build());
+        final var change = StateChangeData.builder()
+                .filter(DeviceData.builder().brand("Apple").build())
+                .state("inactive")
+                .build();
+
+        when(this.repository.updateState(any(), any(), any())).thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        // When
+        this.service.updateState(change);
+
+        // Then
+        assertNotNull(cache.get(id));
+    }
+
+    @Test
+    void shouldNotSaveAllWhenBatchIsTooLarge() {
+        // Given
+        final var devices = nCopies(10001, DeviceData.builder().name("iPhone").brand("Apple").state("available").build());
+
+        // When
+        final var result = assertThrows(BatchTooLargeException.class, () -> this.service.saveAll(devices));
+
+        // Then
+        assertEquals("Batch must not have more than 10000 devices", result.getMessage());
+
+        verify(this.repository, never()).insertUnordered(any());
+    }
+
+    @Test
+    void shouldLookupCachedDevicesFirst() {
+        // Given
+        final var apple = Device.builder().id(randomUUID()).name("iPhone").brand("Apple").state(AVAILABLE).build();
+        final var samsung = Device.builder().id(randomUUID()).name("Galaxy").brand("Samsung").state(INACTIVE).build();
+        final var unknown = randomUUID();
+
+        when(this.repository.findAllById(any())).thenReturn(of(samsung, apple));
+
+        // When
+        final var first = this.service.lookup(of(apple.getId(), unknown, samsung.getId(), apple.getId()));
+        final var second = this.service.lookup(of(samsung.getId(), apple.getId()));
+
+        // Then
+        assertEquals(of("iPhone", "Galaxy"), first.devices().stream().map(DeviceData::name).toList());
+        assertEquals(of(unknown), first.missing());
+        assertEquals(of("Galaxy", "iPhone"), second.devices().stream().map(DeviceData::name).toList());
+        assertTrue(second.missing().isEmpty());
+
+        verify(this.repository).findAllById(eq(of(apple.getId(), unknown, samsung.getId())));
+    }
+
+    @Test
+    void shouldNotLookupWhenBatchIsTooLarge() {
+        // Given
+        final var ids = nCopies(1001, randomUUID());
+
+        // When
+        final var result = assertThrows(BatchTooLargeException.class, () -> this.service.lookup(ids));
+
+        // Then
+        assertEquals("Lookup must not have more than 1000 devices", result.getMessage());
+
+        verify(this.repository, never()).findAllById(any());
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.device.service;
+
+import br.com.device.dto.DeviceChangeData;
+import br.com.device.dto.DeviceData;
+import br.com.device.model.Device;
+import br.com.device.repository.DeviceRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static br.com.device.config.CacheConfig.DEVICES_CACHE;
+import static br.com.device.model.State.AVAILABLE;
+import static br.com.device.model.State.IN_USE;
+import static br.com.device.service.DeviceChangeListener.TOKENS_COLLECTION;
+import static java.time.Instant.now;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+
+@SpringBootTest(properties = "device.changes.enabled=true")
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
+class DeviceChangeListenerTest {
+
+    @Autowired
+    private DeviceService service;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private DeviceChangeFeed feed;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Test
+    void shouldEvictCachedDeviceWhenChangedElsewhere() throws InterruptedException {
+        // Given
+        final BlockingQueue<DeviceChangeData> changes = new LinkedBlockingQueue<>();
+        final var subscription = this.feed.subscribe(null, changes::add, () -> {
+        });
+        final var device = this.repository.save(Device.builder().name("iPhone").brand("Apple").state(AVAILABLE).creationTime(now()).build());
+        final var insert = changes.poll(10, SECONDS);
+        assertNotNull(insert);
+        assertEquals("insert", insert.type());
+        this.service.readOne(device.getId());
+        final var cache = requireNonNull(this.cacheManager.getCache(DEVICES_CACHE));
+        assertNotNull(cache.get(device.getId()));
+
+        // When
+        device.setState(IN_USE);
+        this.repository.save(device);
+
+        // Then
+        final var change = changes.poll(10, SECONDS);
+        assertNotNull(change);
+        assertEquals(device.getId(), change.id());
+        assertNull(cache.get(device.getId()));
+        assertEquals("in-use", this.service.readOne(device.getId()).state());
+        subscription.cancel();
+    }
+
+    @Test
+    void shouldPublishMatchingChanges() throws InterruptedException {
+        // Given
+        final BlockingQueue<DeviceChangeData> changes = new LinkedBlockingQueue<>();
+        final var filter = DeviceData.builder().brand("Samsung").build();
+        final var subscription = this.feed.subscribe(filter, changes::add, () -> {
+        });
+
+        // When
+        this.repository.save(Device.builder().name("iPhone").brand("Apple").state(AVAILABLE).creationTime(now()).build());
+        final var galaxy = this.repository.save(Device.builder().name("Galaxy").brand("Samsung").state(AVAILABLE).creationTime(now()).build());
+        this.repository.deleteById(galaxy.getId());
+
+        // Then
+        final var insert = changes.poll(10, SECONDS);
+        assertNotNull(insert);
+        assertEquals("insert", insert.type());
+        assertEquals("Galaxy", insert.device().name());
+        final var delete = changes.poll(10, SECONDS);
+        assertNotNull(delete);
+        assertEquals("delete", delete.type());
+        assertEquals(galaxy.getId(), delete.id());
+        assertNull(delete.device());
+        assertNull(changes.poll(1, SECONDS));
+        subscription.cancel();
+    }
+
+    @Test
+    void shouldPublishChangesPastUnreadableDevice() throws InterruptedException {
+        // Given
+        final BlockingQueue<DeviceChangeData> changes = new LinkedBlockingQueue<>();
+        final var subscription = this.feed.subscribe(null, changes::add, () -> {
+        });
+        final var id = randomUUID();
+
+        // When
+        this.operations.insert(new Document("_id", id).append("name", "Lumia").append("brand", "Nokia").append("state", "BROKEN"),
+                this.operations.getCollectionName(Device.class));
+        final var edge = this.repository.save(Device.builder().name("Edge").brand("Motorola").state(AVAILABLE).creationTime(now()).build());
+
+        // Then
+        final var unreadable = changes.poll(10, SECONDS);
+        assertNotNull(unreadable);
+        assertEquals(id, unreadable.id());
+        assertNull(unreadable.device());
+        final var next = changes.poll(10, SECONDS);
+        assertNotNull(next);
+        assertEquals(edge.getId(), next.id());
+        assertEquals("Edge", next.device().name());
+        subscription.cancel();
+    }
+
+    @Test
+    void shouldDropSubscriberThatFallsBehind() throws InterruptedException {
+        // Given
+        final var closed = new CountDownLatch(1);
+        final var subscription = this.feed.subscribe(null, _ -> Thread.sleep(60_000), closed::countDown);
+
+        // When
+        for (var index = 0; index < 1_002; index++) {
+            this.feed.publish(new DeviceChangeData("delete", randomUUID(), null));
+        }
+
+        // Then
+        assertTrue(closed.await(10, SECONDS));
+        subscription.cancel();
+    }
+
+    @Test
+    void shouldPersistResumeToken() throws InterruptedException {
+        // When
+        this.repository.save(Device.builder().name("Edge").brand("Motorola").state(AVAILABLE).creationTime(now()).build());
+
+        // Then
+        Document token = null;
+        for (var attempt = 0; attempt < 100 && token == null; attempt++) {
+            token = this.operations.findById("device-service", Document.class, TOKENS_COLLECTION);
+            if (token == null) Thread.sleep(100);
+        }
+        assertNotNull(token);
+        assertNotNull(token.getString("_data"));
+    }
+}
@@ -3,30 +3,52 @@ package br.com.device.service;
 import br.com.device.dto.DeviceData;
 import br.com.device.exception.DeviceInUseException;
 import br.com.device.exception.DeviceNotFoundException;
+import br.com.device.exception.InvalidCursorException;
+import br.com.device.exception.PreconditionFailedException;
 import br.com.device.mapper.DeviceDataMapper;
 import br.com.device.mapper.StateMapper;
 import br.com.device.model.Device;
+import br.com.device.repository.DeviceCursor;
+import br.com.device.repository.DeviceProjection;
 import br.com.device.repository.DeviceRepository;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.Example;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import static br.com.device.model.State.AVAILABLE;
+import static br.com.device.model.State.INACTIVE;
 import static br.com.device.model.State.IN_USE;
+import static br.com.device.repository.DeviceProjection.ALL;
+import static java.lang.Thread.State.WAITING;
 import static java.util.List.of;
 import static java.util.Optional.empty;
 import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -49,6 +71,15 @@ class DeviceServiceTest {
     @Autowired
     private DeviceService service;
 
+    @Autowired
+    private DeviceStatsService stats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
     @Test
     void shouldSave() {
         // Given
@@ -58,13 +89,18 @@ class DeviceServiceTest {
                 .state("available")
                 .build();
 
-        when(this.repository.save(any())).thenReturn(new Device());
+        when(this.repository.save(any())).thenAnswer(invocation -> {
+            final var entity = invocation.getArgument(0, Device.class);
+            entity.setId(randomUUID());
+            return entity;
+        });
 
         // When
         final var result = this.service.save(device);
 
         // Then
         assertNotNull(result);
+        assertNotNull(result.id());
 
         verify(this.stateMapper).fromString(anyString());
         verify(this.mapper).toEntity(any(DeviceData.class));
@@ -104,10 +140,10 @@ class DeviceServiceTest {
         );
         final var page = new PageImpl<>(devices);
 
-        when(this.repository.findAll(any(), any(Pageable.class))).thenReturn(page);
+        when(this.repository.findAllMatching(any(), any(Pageable.class), any())).thenReturn(page);
 
         // When
-        final var result = this.service.readAll(pageable, filter);
+        final var result = this.service.readAll(pageable, filter, ALL);
 
         // Then
         assertNotNull(result);
@@ -115,7 +151,7 @@ class DeviceServiceTest {
 
         verify(this.mapper).toEntity(any(DeviceData.class));
         verify(this.mapper, times(2)).toDTO(any(Device.class));
-        verify(this.repository).findAll(any(), any(Pageable.class));
+        verify(this.repository).findAllMatching(any(), any(Pageable.class), any());
     }
 
     @Test
@@ -127,10 +163,10 @@ class DeviceServiceTest {
         final var devices = of(Device.builder().name("iPhone").brand("Apple").state(AVAILABLE).build());
         final var page = new PageImpl<>(devices);
 
-        when(this.repository.findAll(any(), any(Pageable.class))).thenReturn(page);
+        when(this.repository.findAllMatching(any(), any(Pageable.class), any())).thenReturn(page);
 
         // When
-        final var result = this.service.readAll(pageable, filter);
+        final var result = this.service.readAll(pageable, filter, ALL);
 
         // Then
         assertNotNull(result);
@@ -138,7 +174,7 @@ class DeviceServiceTest {
 
         verify(this.mapper).toEntity(any(DeviceData.class));
         verify(this.mapper).toDTO(any(Device.class));
-        verify(this.repository).findAll(eq(Example.of(entityFilter)), any(Pageable.class));
+        verify(this.repository).findAllMatching(eq(entityFilter), any(Pageable.class), any());
     }
 
     @Test
@@ -150,10 +186,10 @@ class DeviceServiceTest {
         final var devices = of(Device.builder().name("iPhone").brand("Apple").state(IN_USE).build());
         final var page = new PageImpl<>(devices);
 
-        when(this.repository.findAll(any(), any(Pageable.class))).thenReturn(page);
+        when(this.repository.findAllMatching(any(), any(Pageable.class), any())).thenReturn(page);
 
         // When
-        final var result = this.service.readAll(pageable, filter);
+        final var result = this.service.readAll(pageable, filter, ALL);
 
         // Then
         assertNotNull(result);
@@ -161,7 +197,7 @@ class DeviceServiceTest {
 
         verify(this.mapper).toEntity(any(DeviceData.class));
         verify(this.mapper).toDTO(any(Device.class));
-        verify(this.repository).findAll(eq(Example.of(entityFilter)), any(Pageable.class));
+        verify(this.repository).findAllMatching(eq(entityFilter), any(Pageable.class), any());
     }
 
     @Test
@@ -170,15 +206,134 @@ class DeviceServiceTest {
         final var pageable = of(0, 10);
         final var filter = DeviceData.builder().build();
 
-        when(this.repository.findAll(any(), any(Pageable.class))).thenThrow(IllegalStateException.class);
+        when(this.repository.findAllMatching(any(), any(Pageable.class), any())).thenThrow(IllegalStateException.class);
 
         // When
-        assertThrows(IllegalStateException.class, () -> this.service.readAll(pageable, filter));
+        assertThrows(IllegalStateException.class, () -> this.service.readAll(pageable, filter, ALL));
 
         // Then
         verify(this.mapper, times(3)).toEntity(any(DeviceData.class));
         verify(this.mapper, never()).toDTO(any(Device.class));
-        verify(this.repository, times(3)).findAll(any(), any(Pageable.class));
+        verify(this.repository, times(3)).findAllMatching(any(), any(Pageable.class), any());
+    }
+
+    @Test
+    void shouldReadSlice() {
+        // Given
+        final var pageable = of(0, 10);
+        final var filter = DeviceData.builder().build();
+        final var devices = of(Device.builder().name("iPhone").brand("Apple").state(AVAILABLE).build());
+
+        when(this.repository.findSliceMatching(any(), any(Pageable.class), any())).thenReturn(new SliceImpl<>(devices, pageable, false));
+
+        // When
+        final var result = this.service.readSlice(pageable, filter, ALL);
+
+        // Then
+        assertEquals(1, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+
+        verify(this.repository).findSliceMatching(any(), any(Pageable.class), any());
+        verify(this.repository, never()).countMatching(any());
+    }
+
+    @Test
+    void shouldReadAllEstimatedWithoutFilter() {
+        // Given
+        final var pageable = of(0, 10);
+        final var filter = DeviceData.builder().build();
+        final var devices = of(Device.builder().name("iPhone").brand("Apple").state(AVAILABLE).build());
+
+        when(this.repository.findSliceMatching(any(), any(Pageable.class), any())).thenReturn(new SliceImpl<>(devices, pageable, false));
+        when(this.repository.estimatedCount()).thenReturn(1L);
+
+        // When
+        final var result = this.service.readAllEstimated(pageable, filter, ALL);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+
+        verify(this.repository).estimatedCount();
+        verify(this.repository, never()).countMatching(any());
+    }
+
+    @Test
+    void shouldReadAllEstimatedByBrandUsingCachedCount() {
+        // Given
+        final var pageable = of(0, 1);
+        final var filter = DeviceData.builder().brand("Apple").build();
+        final var devices = of(Device.builder().name("iPhone").brand("Apple").state(AVAILABLE).build());
+
+        when(this.repository.findSliceMatching(any(), any(Pageable.class), any())).thenReturn(new SliceImpl<>(devices, pageable, true));
+        when(this.repository.countMatching(any())).thenReturn(5L);
+
+        // When
+        this.service.readAllEstimated(pageable, filter, ALL);
+        final var result = this.service.readAllEstimated(pageable, filter, ALL);
+
+        // Then
+        assertEquals(5, result.getTotalElements());
+
+        verify(this.repository, times(2)).findSliceMatching(any(), any(Pageable.class), any());
+        verify(this.repository).countMatching(eq(Device.builder().brand("Apple").build()));
+        verify(this.repository, never()).estimatedCount();
+    }
+
+    @Test
+    void shouldReadAllByCursor() {
+        // Given
+        final var pageable = of(0, 2);
+        final var filter = DeviceData.builder().build();
+        final var devices = of(
+                Device.builder().id(randomUUID()).name("iPhone").brand("Apple").state(AVAILABLE).build(),
+                Device.builder().id(randomUUID()).name("Galaxy").brand("Samsung").state(IN_USE).build(),
+                Device.builder().id(randomUUID()).name("Edge").brand("Motorola").state(AVAILABLE).build()
+        );
+
+        when(this.repository.findAllAfter(any(), any(), anyInt(), any())).thenReturn(devices);
+
+        // When
+        final var result = this.service.readAll("", pageable, filter, ALL);
+
+        // Then
+        assertEquals(2, result.content().size());
+        assertEquals(devices.get(1).getId(), DeviceCursor.decode(result.next()).id());
+
+        verify(this.mapper, times(2)).toDTO(any(Device.class));
+        verify(this.repository).findAllAfter(any(), eq(DeviceCursor.first(pageable.getSort())), eq(3), eq(ALL));
+    }
+
+    @Test
+    void shouldReadAllProjected() {
+        // Given
+        final var pageable = of(0, 10);
+        final var filter = DeviceData.builder().build();
+        final var projection = DeviceProjection.parse("name");
+        final var page = new PageImpl<>(of(Device.builder().id(randomUUID()).name("iPhone").build()));
+
+        when(this.repository.findAllMatching(any(), any(Pageable.class), any())).thenReturn(page);
+
+        // When
+        final var result = this.service.readAll(pageable, filter, projection);
+
+        // Then
+        assertEquals("iPhone", result.getContent().getFirst().name());
+        assertNull(result.getContent().getFirst().state());
+
+        verify(this.repository).findAllMatching(any(), any(Pageable.class), eq(projection));
+    }
+
+    @Test
+    void shouldNotReadAllByCursorWhenSortIsNotSupported() {
+        // Given
+        final var pageable = of(0, 2, Sort.by("unknown"));
+        final var filter = DeviceData.builder().build();
+
+        // When
+        assertThrows(InvalidCursorException.class, () -> this.service.readAll("", pageable, filter, ALL));
+
+        // Then
+        verify(this.repository, never()).findAllAfter(any(), any(), anyInt(), any());
     }
 
     @Test
@@ -200,6 +355,179 @@ class DeviceServiceTest {
         verify(this.repository).findById(eq(id));
     }
 
+    @Test
+    void shouldTimeOperations() {
+        // Given
+        final var id = randomUUID();
+
+        when(this.repository.findById(any())).thenReturn(Optional.empty());
+
+        // When
+        assertThrows(DeviceNotFoundException.class, () -> this.service.readOne(id));
+
+        // Then
+        final var timer = this.meterRegistry.get("device.operation")
+                .tag("method", "readOne")
+                .tag("exception", DeviceNotFoundException.class.getSimpleName())
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void shouldRejectOperationsBeyondTheMongoBulkhead() throws Exception {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).build();
+        final var entered = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+
+        this.bulkheadRegistry.bulkhead("mongo-bulkhead")
+                .changeConfig(BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        when(this.repository.findById(any())).thenAnswer(_ -> {
+            entered.countDown();
+            release.await();
+            return Optional.of(device);
+        });
+
+        try (final var executor = newVirtualThreadPerTaskExecutor()) {
+            final var first = executor.submit(() -> this.service.readOne(id));
+            entered.await();
+
+            // When and then
+            assertThrows(BulkheadFullException.class, () -> this.service.readOne(randomUUID()));
+
+            release.countDown();
+            assertEquals(id, first.get().id());
+        }
+        verify(this.repository).findById(eq(id));
+    }
+
+    @Test
+    void shouldReadOneFromCache() {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).build();
+
+        when(this.repository.findById(any())).thenReturn(Optional.of(device));
+
+        // When
+        this.service.readOne(id);
+        final var result = this.service.readOne(id);
+
+        // Then
+        assertEquals(id, result.id());
+
+        verify(this.mapper).toDTO(any(Device.class));
+        verify(this.repository).findById(eq(id));
+    }
+
+    @Test
+    void shouldShareInFlightReadOfTheSameDevice() throws Exception {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).build();
+        final var release = new CountDownLatch(1);
+
+        when(this.repository.findById(any())).thenAnswer(_ -> {
+            release.await();
+            return Optional.of(device);
+        });
+
+        // When
+        final var results = this.readConcurrently(id, 10);
+        verify(this.repository, timeout(1000)).findById(eq(id));
+        awaitParked(results);
+        release.countDown();
+
+        // Then
+        for (final var result : results) {
+            assertEquals(id, result.get().id());
+        }
+
+        verify(this.repository).findById(eq(id));
+    }
+
+    @Test
+    void shouldHoldOneMongoPermitForInFlightReadOfTheSameDevice() throws Exception {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).build();
+        final var release = new CountDownLatch(1);
+        final var bulkhead = this.bulkheadRegistry.bulkhead("mongo-bulkhead");
+
+        bulkhead.changeConfig(BulkheadConfig.custom().maxConcurrentCalls(2).maxWaitDuration(Duration.ZERO).build());
+        when(this.repository.findById(any())).thenAnswer(_ -> {
+            release.await();
+            return Optional.of(device);
+        });
+
+        // When
+        final var results = this.readConcurrently(id, 10);
+        verify(this.repository, timeout(1000)).findById(eq(id));
+        awaitParked(results);
+
+        // Then
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+
+        release.countDown();
+        for (final var result : results) {
+            assertEquals(id, result.get().id());
+        }
+
+        assertEquals(2, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        verify(this.repository).findById(eq(id));
+    }
+
+    @Test
+    void shouldShareInFlightDeviceNotFound() throws Exception {
+        // Given
+        final var id = randomUUID();
+        final var release = new CountDownLatch(1);
+
+        when(this.repository.findById(any())).thenAnswer(_ -> {
+            release.await();
+            return empty();
+        });
+
+        // When
+        final var results = this.readConcurrently(id, 10);
+        verify(this.repository, timeout(1000)).findById(eq(id));
+        awaitParked(results);
+        release.countDown();
+
+        // Then
+        for (final var result : results) {
+            final var exception = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(DeviceNotFoundException.class, exception.getCause());
+        }
+
+        verify(this.repository).findById(eq(id));
+    }
+
+    @Test
+    void shouldRefreshCacheOnUpdateAndEvictOnDelete() {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(AVAILABLE).build();
+        final var updatedDevice = Device.builder().id(id).name("Galaxy").brand("Samsung").state(INACTIVE).build();
+
+        when(this.repository.findById(any())).thenReturn(Optional.of(device));
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(Optional.of(updatedDevice));
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(Optional.of(updatedDevice));
+
+        // When
+        this.service.readOne(id);
+        this.service.update(id, DeviceData.builder().state("inactive").build(), null);
+        final var updated = this.service.readOne(id);
+        this.service.delete(id, null);
+        this.service.readOne(id);
+
+        // Then
+        assertEquals("inactive", updated.state());
+
+        verify(this.repository, times(2)).findById(eq(id));
+    }
+
     @Test
     void shouldRetryReadOneWhenThereIsAnError() {
         // Given
@@ -232,13 +560,13 @@ class DeviceServiceTest {
     void shouldUpdate() {
         // Given
         final var id = randomUUID();
-        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(AVAILABLE).build();
+        final var device = Device.builder().id(id).name("iPhone").brand("Apple").state(IN_USE).build();
         final var updatedDevice = DeviceData.builder().name("iPhone").brand("Apple").state("in-use").build();
 
-        when(this.repository.findById(any())).thenReturn(Optional.of(device));
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(Optional.of(device));
 
         // When
-        final var result = this.service.update(id, updatedDevice);
+        final var result = this.service.update(id, updatedDevice, null);
 
         // Then
         assertNotNull(result);
@@ -246,38 +574,37 @@ class DeviceServiceTest {
         assertEquals("iPhone", result.name());
         assertEquals("Apple", result.brand());
         assertEquals("in-use", result.state());
+        assertEquals(1L, result.version());
 
-        verify(this.stateMapper, times(2)).fromString(anyString());
-        verify(this.mapper, times(2)).toDTO(any(Device.class));
-        verify(this.mapper).toDTO(any(DeviceData.class), any(DeviceData.class));
+        verify(this.stateMapper).fromString(anyString());
+        verify(this.mapper).toDTO(any(Device.class));
         verify(this.mapper).toEntity(any(DeviceData.class));
-        verify(this.repository).findById(eq(id));
-        verify(this.repository).save(any());
+        verify(this.repository).updateFields(eq(id), eq(Device.builder().name("iPhone").brand("Apple").state(IN_USE).build()), eq(true), isNull());
+        verify(this.repository, never()).findById(any());
+        verify(this.repository, never()).save(any());
     }
 
     @Test
     void shouldUpdateInUseWhenNameOrBrandIsNotPresent() {
         // Given
         final var id = randomUUID();
-        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).build();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(AVAILABLE).build();
         final var updatedDevice = DeviceData.builder().state("available").build();
 
-        when(this.repository.findById(any())).thenReturn(Optional.of(device));
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(Optional.of(device));
 
         // When
-        final var result = this.service.update(id, updatedDevice);
+        final var result = this.service.update(id, updatedDevice, null);
 
         // Then
         assertNotNull(result);
         assertEquals(id, result.id());
         assertEquals("available", result.state());
 
-        verify(this.stateMapper, times(2)).fromString(anyString());
-        verify(this.mapper, times(2)).toDTO(any(Device.class));
-        verify(this.mapper).toDTO(any(DeviceData.class), any(DeviceData.class));
+        verify(this.mapper).toDTO(any(Device.class));
         verify(this.mapper).toEntity(any(DeviceData.class));
-        verify(this.repository).findById(eq(id));
-        verify(this.repository).save(any());
+        verify(this.repository).updateFields(eq(id), eq(Device.builder().state(AVAILABLE).build()), eq(false), isNull());
+        verify(this.repository, never()).existsById(any());
     }
 
     @ParameterizedTest
@@ -285,60 +612,236 @@ class DeviceServiceTest {
     void shouldNotUpdateNameOrBrandWhenDeviceIsInUse(final String name, final String brand) {
         // Given
         final var id = randomUUID();
-        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).build();
         final var updatedDevice = DeviceData.builder().name(name).brand(brand).build();
 
-        when(this.repository.findById(any())).thenReturn(Optional.of(device));
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(empty());
+        when(this.repository.existsById(any())).thenReturn(true);
 
         // When
-        final var result = assertThrows(DeviceInUseException.class, () -> this.service.update(id, updatedDevice));
+        final var result = assertThrows(DeviceInUseException.class, () -> this.service.update(id, updatedDevice, null));
 
         // Then
         assertEquals("Name or brand cannot be changed while device is in use", result.getMessage());
 
-        verify(this.stateMapper).fromString(anyString());
-        verify(this.mapper).toDTO(any(Device.class));
-        verify(this.mapper, never()).toDTO(any(DeviceData.class), any(DeviceData.class));
-        verify(this.mapper, never()).toEntity(any(DeviceData.class));
-        verify(this.repository).findById(eq(id));
-        verify(this.repository, never()).save(any());
+        verify(this.mapper, never()).toDTO(any(Device.class));
+        verify(this.repository).updateFields(eq(id), any(), eq(true), isNull());
+        verify(this.repository).existsById(eq(id));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"iPhone,,", ",,available"})
+    void shouldNotUpdateWhenDeviceNotFound(final String name, final String brand, final String state) {
+        // Given
+        final var id = randomUUID();
+        final var updatedDevice = DeviceData.builder().name(name).brand(brand).state(state).build();
+
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(empty());
+        when(this.repository.existsById(any())).thenReturn(false);
+
+        // When
+        assertThrows(DeviceNotFoundException.class, () -> this.service.update(id, updatedDevice, null));
+
+        // Then
+        verify(this.mapper, never()).toDTO(any(Device.class));
+        verify(this.repository).updateFields(eq(id), any(), anyBoolean(), isNull());
     }
 
     @Test
     void shouldDelete() {
         // Given
         final var id = randomUUID();
-        final var device = Device.builder().id(id).state(AVAILABLE).build();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(AVAILABLE).build();
+
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(Optional.of(device));
+
+        // When
+        this.service.delete(id, null);
+
+        // Then
+        verify(this.repository).deleteIfNotInUse(eq(id), isNull());
+        verify(this.repository, never()).findById(any());
+        verify(this.repository, never()).existsById(any());
+    }
+
+    @Test
+    void shouldNotDeleteWhenDeviceIsInUse() {
+        // Given
+        final var id = randomUUID();
 
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(empty());
+        when(this.repository.existsById(any())).thenReturn(true);
+
+        // When
+        final var result = assertThrows(DeviceInUseException.class, () -> this.service.delete(id, null));
+
+        // Then
+        assertEquals("In use device cannot be removed", result.getMessage());
+
+        verify(this.repository).deleteIfNotInUse(eq(id), isNull());
+        verify(this.repository).existsById(eq(id));
+    }
+
+    @Test
+    void shouldNotDeleteWhenDeviceNotFound() {
+        // Given
+        final var id = randomUUID();
+
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(empty());
+        when(this.repository.existsById(any())).thenReturn(false);
+
+        // When
+        assertThrows(DeviceNotFoundException.class, () -> this.service.delete(id, null));
+
+        // Then
+        verify(this.repository).deleteIfNotInUse(eq(id), isNull());
+        verify(this.repository).existsById(eq(id));
+    }
+
+    @Test
+    void shouldNotChangeVersionWhenNothingIsUpdated() {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(AVAILABLE).version(3L).build();
+
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(Optional.of(device));
+
+        // When
+        final var result = this.service.update(id, DeviceData.builder().build(), 3L);
+
+        // Then
+        assertEquals(3L, result.version());
+
+        verify(this.repository).updateFields(eq(id), eq(new Device()), eq(false), eq(3L));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"iPhone,2", ",1"})
+    void shouldNotUpdateWhenVersionDoesNotMatch(final String name, final Long currentVersion) {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("iPhone").brand("Apple").state(AVAILABLE).version(currentVersion).build();
+        final var updatedDevice = DeviceData.builder().name(name).state("inactive").build();
+
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(empty());
         when(this.repository.findById(any())).thenReturn(Optional.of(device));
 
         // When
-        this.service.delete(id);
+        final var result = assertThrows(PreconditionFailedException.class, () -> this.service.update(id, updatedDevice, 1L));
 
         // Then
-        verify(this.stateMapper).fromString(anyString());
-        verify(this.mapper).toDTO(any(Device.class));
+        assertEquals("Device version does not match", result.getMessage());
+
+        verify(this.repository).updateFields(eq(id), any(), anyBoolean(), eq(1L));
         verify(this.repository).findById(eq(id));
-        verify(this.repository).deleteById(eq(id));
+        verify(this.repository, never()).existsById(any());
     }
 
     @Test
-    void shouldNotDeleteWhenDeviceIsInUse() {
+    void shouldNotDeleteWhenDeviceIsInUseAndVersionMatches() {
         // Given
         final var id = randomUUID();
-        final var device = Device.builder().id(id).state(IN_USE).build();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(IN_USE).version(1L).build();
 
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(empty());
         when(this.repository.findById(any())).thenReturn(Optional.of(device));
 
         // When
-        final var result = assertThrows(DeviceInUseException.class, () -> this.service.delete(id));
+        final var result = assertThrows(DeviceInUseException.class, () -> this.service.delete(id, 1L));
 
         // Then
         assertEquals("In use device cannot be removed", result.getMessage());
 
-        verify(this.stateMapper).fromString(anyString());
-        verify(this.mapper).toDTO(any(Device.class));
+        verify(this.repository).deleteIfNotInUse(eq(id), eq(1L));
         verify(this.repository).findById(eq(id));
-        verify(this.repository, never()).deleteById(eq(id));
+    }
+
+    @Test
+    void shouldNotDeleteWhenDeviceNotFoundAndVersionIsExpected() {
+        // Given
+        final var id = randomUUID();
+
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(empty());
+        when(this.repository.findById(any())).thenReturn(empty());
+
+        // When
+        assertThrows(DeviceNotFoundException.class, () -> this.service.delete(id, 1L));
+
+        // Then
+        verify(this.repository).deleteIfNotInUse(eq(id), eq(1L));
+        verify(this.repository, never()).existsById(any());
+    }
+
+    @Test
+    void shouldKeepStatsUpToDate() {
+        // Given
+        final var id = randomUUID();
+        final var device = Device.builder().id(id).name("Galaxy").brand("Samsung").state(AVAILABLE).build();
+        final var updatedDevice = Device.builder().id(id).name("Galaxy").brand("Samsung").state(INACTIVE).build();
+
+        when(this.repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(this.repository.updateFields(any(), any(), anyBoolean(), any())).thenReturn(Optional.of(device));
+        when(this.repository.deleteIfNotInUse(any(), any())).thenReturn(Optional.of(updatedDevice));
+
+        // When
+        this.service.save(DeviceData.builder().name("Galaxy").brand("Samsung").state("available").build());
+        final var created = this.stats.stats();
+        this.service.update(id, DeviceData.builder().state("inactive").build(), null);
+        final var updated = this.stats.stats();
+        this.service.delete(id, null);
+        final var deleted = this.stats.stats();
+
+        // Then
+        assertEquals(1, created.total());
+        assertEquals(Map.of("Samsung", Map.of("available", 1L)), created.byBrand());
+        assertEquals(1, updated.total());
+        assertEquals(Map.of("inactive", 1L), updated.byState());
+        assertEquals(0, deleted.total());
+        assertTrue(deleted.byBrand().isEmpty());
+    }
+
+    @Test
+    void shouldReconcileStats() {
+        // Given
+        when(this.repository.countByBrandAndState()).thenReturn(Map.of(
+                "Apple", Map.of(AVAILABLE, 2L, IN_USE, 1L),
+                "Samsung", Map.of(IN_USE, 3L)));
+
+        // When
+        this.stats.reconcile();
+        final var result = this.stats.stats();
+
+        // Then
+        assertEquals(6, result.total());
+        assertEquals(Map.of("available", 2L, "in-use", 4L), result.byState());
+        assertEquals(Map.of("available", 2L, "in-use", 1L), result.byBrand().get("Apple"));
+        assertEquals(Map.of("in-use", 3L), result.byBrand().get("Samsung"));
+    }
+
+    private List<ConcurrentRead> readConcurrently(final UUID id, final int readers) {
+        return range(0, readers)
+                .mapToObj(_ -> {
+                    final var read = new FutureTask<>(() -> this.service.readOne(id));
+                    return new ConcurrentRead(read, Thread.ofVirtual().start(read));
+                })
+                .toList();
+    }
+
+    /**
+     * Waits until every reader is parked, either in the repository stub or waiting for the read in flight, as
+     * none of them can make progress before the stub is released.
+     */
+    private static void awaitParked(final List<ConcurrentRead> reads) throws InterruptedException {
+        final var deadline = System.nanoTime() + SECONDS.toNanos(5);
+        while (!reads.stream().allMatch(read -> read.thread().getState() == WAITING)) {
+            assertTrue(System.nanoTime() < deadline, "Reads did not park");
+            Thread.sleep(1);
+        }
+    }
+
+    private record ConcurrentRead(FutureTask<DeviceData> result, Thread thread) {
+
+        private DeviceData get() throws InterruptedException, ExecutionException {
+            return this.result.get();
+        }
     }
 }